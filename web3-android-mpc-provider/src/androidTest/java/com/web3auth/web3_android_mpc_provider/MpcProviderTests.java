@@ -1,5 +1,7 @@
 package com.web3auth.web3_android_mpc_provider;
 
+import static org.junit.Assert.assertTrue;
+
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.web3auth.tss_client_android.client.TSSClientError;
@@ -11,6 +13,8 @@ import org.web3j.protocol.http.HttpService;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 @RunWith(AndroidJUnit4.class)
@@ -96,4 +100,45 @@ public class MpcProviderTests {
         String toAddress = "0xE09543f1974732F5D6ad442dDf176D9FA54a5Be0";
         account.signTransaction(web3j, toAddress, 0.001, 0.001, null, gasLimit);
     }
+
+    @Test
+    public void testSigningMessageAsync() throws ExecutionException, InterruptedException {
+        EthTssAccountParams params = new EthTssAccountParams(
+                fullAddress, factorKey, tssNonce, tssShare, tssIndex, selected_tag, verifier, verifierId,
+                nodeIndexs, tssEndpoints, sigs);
+
+        EthereumTssAccount account = new EthereumTssAccount(params);
+
+        String msg = "hello world";
+        account.signMessageAsync(msg).get();
+    }
+
+    @Test
+    public void testSigningTransactionAsync() throws ExecutionException, InterruptedException {
+        EthTssAccountParams params = new EthTssAccountParams(
+                fullAddress, factorKey, tssNonce, tssShare, tssIndex, selected_tag, verifier, verifierId,
+                nodeIndexs, tssEndpoints, sigs);
+        EthereumTssAccount account = new EthereumTssAccount(params);
+        // setup Web3j
+        String url = "https://rpc.ankr.com/eth_goerli";
+        Web3j web3j = Web3j.build(new HttpService(url));
+        BigInteger gasLimit = BigInteger.valueOf(21000);
+
+        String toAddress = "0xE09543f1974732F5D6ad442dDf176D9FA54a5Be0";
+        account.signTransactionAsync(web3j, toAddress, 0.001, 0.001, null, gasLimit).get();
+    }
+
+    @Test
+    public void testSigningMessageBatch() {
+        EthTssAccountParams params = new EthTssAccountParams(
+                fullAddress, factorKey, tssNonce, tssShare, tssIndex, selected_tag, verifier, verifierId,
+                nodeIndexs, tssEndpoints, sigs);
+
+        EthereumTssAccount account = new EthereumTssAccount(params);
+
+        List<SignResult> results = account.signMessageBatch(Arrays.asList("hello world", "hello again"));
+        for (SignResult result : results) {
+            assertTrue(result.isSuccess());
+        }
+    }
 }
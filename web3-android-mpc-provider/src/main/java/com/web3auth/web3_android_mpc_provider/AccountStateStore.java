@@ -0,0 +1,142 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the latency and error averages of an account's TSS nodes across process restarts, so
+ * that the first signature after a cold start goes straight to a healthy node subset instead of
+ * finding a slow or unreachable node again. Records older than the maximum age are ignored and
+ * deleted, as node health changes.
+ * <p>
+ * Nothing derived from the key is stored. The server coefficients and the denormalized share are
+ * computed locally from {@link EthTssAccountParams} on first use, which takes far less than one
+ * round trip to the nodes, and a DKLS precompute cannot outlive the nodes' session that produced it.
+ */
+public class AccountStateStore {
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private static final int VERSION = 3;
+
+    private final StorageBackend backend;
+    private final long maxAgeMillis;
+
+    public AccountStateStore(StorageBackend backend) {
+        this(backend, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    public AccountStateStore(StorageBackend backend, long maxAgeMillis) {
+        if (maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("maxAgeMillis must be positive");
+        }
+        this.backend = backend;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Writes the averages the selector holds for the endpoints of the account.
+     */
+    void save(TssAccountContext context, EndpointSelector selector) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(VERSION);
+        output.writeLong(System.currentTimeMillis());
+
+        Map<String, double[]> averages = new HashMap<>();
+        for (String endpoint : context.params.tssEndpoints) {
+            double[] snapshot = selector.snapshot(endpoint);
+            if (snapshot != null) {
+                averages.put(endpoint, snapshot);
+            }
+        }
+        output.writeInt(averages.size());
+        for (Map.Entry<String, double[]> average : averages.entrySet()) {
+            output.writeUTF(average.getKey());
+            output.writeDouble(average.getValue()[0]);
+            output.writeDouble(average.getValue()[1]);
+        }
+        output.flush();
+
+        synchronized (this) {
+            if (context.destroyed) {
+                // the account was destroyed, e.g. on logout, and its record deleted
+                throw new IOException("Account context was destroyed");
+            }
+            backend.write(recordName(context.params), buffer.toByteArray());
+        }
+    }
+
+    /**
+     * Seeds the selector with the stored averages of the account's endpoints that it has not
+     * measured itself yet.
+     *
+     * @return whether a usable record was found
+     */
+    boolean restore(EthTssAccountParams params, EndpointSelector selector) {
+        String name = recordName(params);
+        Map<String, double[]> averages = new HashMap<>();
+        try {
+            byte[] record = backend.read(name);
+            if (record == null) {
+                return false;
+            }
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+            if (input.readInt() != VERSION) {
+                throw new IOException("Unknown record version");
+            }
+            long savedAt = input.readLong();
+            if (System.currentTimeMillis() - savedAt > maxAgeMillis) {
+                throw new IOException("Record expired");
+            }
+            List<String> endpoints = Arrays.asList(params.tssEndpoints);
+            for (int i = input.readInt(); i > 0; i--) {
+                String endpoint = input.readUTF();
+                double latencyNanos = input.readDouble();
+                double errorRate = input.readDouble();
+                if (!endpoints.contains(endpoint) || !(latencyNanos >= 0) || Double.isInfinite(latencyNanos)
+                        || !(errorRate >= 0 && errorRate <= 1)) {
+                    throw new IOException("Invalid averages for " + endpoint);
+                }
+                averages.put(endpoint, new double[]{latencyNanos, errorRate});
+            }
+        } catch (IOException e) {
+            discard(name);
+            return false;
+        }
+        for (Map.Entry<String, double[]> average : averages.entrySet()) {
+            selector.restore(average.getKey(), average.getValue()[0], average.getValue()[1]);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the stored state of the account, e.g. on logout.
+     */
+    public synchronized void delete(EthTssAccountParams params) throws IOException {
+        backend.delete(recordName(params));
+    }
+
+    private void discard(String name) {
+        try {
+            backend.delete(name);
+        } catch (IOException ignored) {
+            // the record is rejected again on the next read
+        }
+    }
+
+    private static String recordName(EthTssAccountParams params) {
+        return "mpc-account-" + Numeric.toHexStringNoPrefix(Hash.sha3(params.publicKey.getBytes(StandardCharsets.UTF_8))).substring(0, 40);
+    }
+}
@@ -0,0 +1,174 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import java.util.Arrays;
+
+/**
+ * Table driven hex and Base64 (RFC 4648, padded, no line breaks) conversions. The buffer variants
+ * write into caller supplied arrays so that hot paths do not allocate per byte.
+ */
+public final class Codec {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final byte[] HEX_VALUES = new byte[128];
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64_DIGITS.length; i++) {
+            BASE64_VALUES[BASE64_DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private Codec() {
+    }
+
+    /**
+     * Decodes {@code hex.length() / 2} bytes of hex into {@code out}, ignoring a trailing odd digit
+     * like {@link Utils#convertToBytes(String)} always has.
+     *
+     * @return the number of bytes written
+     * @throws NumberFormatException when the input contains a character that is not a hex digit
+     */
+    public static int decodeHex(CharSequence hex, byte[] out, int offset) {
+        int length = hex.length() / 2;
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = (byte) (hexValue(hex, i * 2) << 4 | hexValue(hex, i * 2 + 1));
+        }
+        return length;
+    }
+
+    public static byte[] decodeHex(CharSequence hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        decodeHex(hex, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Writes the lower case hex digits of the bytes into {@code out}.
+     *
+     * @return the number of characters written
+     */
+    public static int encodeHex(byte[] bytes, int offset, int length, char[] out, int outOffset) {
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i] & 0xff;
+            out[outOffset + i * 2] = HEX_DIGITS[b >>> 4];
+            out[outOffset + i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return length * 2;
+    }
+
+    public static String encodeHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        encodeHex(bytes, 0, bytes.length, chars, 0);
+        return new String(chars);
+    }
+
+    public static int base64Length(int byteCount) {
+        return (byteCount + 2) / 3 * 4;
+    }
+
+    /**
+     * Writes the padded Base64 encoding of the bytes into {@code out}, which must have room for
+     * {@link #base64Length(int)} characters.
+     *
+     * @return the number of characters written
+     */
+    public static int encodeBase64(byte[] bytes, int offset, int length, char[] out, int outOffset) {
+        int end = offset + length;
+        int o = outOffset;
+        int i = offset;
+        for (; i + 3 <= end; i += 3) {
+            int chunk = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+            out[o++] = BASE64_DIGITS[chunk >>> 18];
+            out[o++] = BASE64_DIGITS[chunk >>> 12 & 0x3f];
+            out[o++] = BASE64_DIGITS[chunk >>> 6 & 0x3f];
+            out[o++] = BASE64_DIGITS[chunk & 0x3f];
+        }
+        int remaining = end - i;
+        if (remaining > 0) {
+            int chunk = (bytes[i] & 0xff) << 16 | (remaining == 2 ? (bytes[i + 1] & 0xff) << 8 : 0);
+            out[o++] = BASE64_DIGITS[chunk >>> 18];
+            out[o++] = BASE64_DIGITS[chunk >>> 12 & 0x3f];
+            out[o++] = remaining == 2 ? BASE64_DIGITS[chunk >>> 6 & 0x3f] : '=';
+            out[o++] = '=';
+        }
+        return o - outOffset;
+    }
+
+    public static String encodeBase64(byte[] bytes) {
+        char[] chars = new char[base64Length(bytes.length)];
+        encodeBase64(bytes, 0, bytes.length, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Decodes padded or unpadded Base64 into {@code out}.
+     *
+     * @return the number of bytes written
+     * @throws IllegalArgumentException when the input is not valid Base64
+     */
+    public static int decodeBase64(CharSequence base64, byte[] out, int offset) {
+        int length = base64.length();
+        while (length > 0 && base64.charAt(length - 1) == '=') {
+            length--;
+        }
+        if (length % 4 == 1 || base64.length() - length > 2) {
+            throw new IllegalArgumentException("Invalid Base64 length");
+        }
+        int o = offset;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int chunk = base64Value(base64, i) << 18 | base64Value(base64, i + 1) << 12
+                    | base64Value(base64, i + 2) << 6 | base64Value(base64, i + 3);
+            out[o++] = (byte) (chunk >>> 16);
+            out[o++] = (byte) (chunk >>> 8);
+            out[o++] = (byte) chunk;
+        }
+        int remaining = length - i;
+        if (remaining >= 2) {
+            int chunk = base64Value(base64, i) << 18 | base64Value(base64, i + 1) << 12
+                    | (remaining == 3 ? base64Value(base64, i + 2) << 6 : 0);
+            out[o++] = (byte) (chunk >>> 16);
+            if (remaining == 3) {
+                out[o++] = (byte) (chunk >>> 8);
+            }
+        }
+        return o - offset;
+    }
+
+    public static byte[] decodeBase64(CharSequence base64) {
+        int length = base64.length();
+        while (length > 0 && base64.charAt(length - 1) == '=') {
+            length--;
+        }
+        byte[] bytes = new byte[length * 3 / 4];
+        decodeBase64(base64, bytes, 0);
+        return bytes;
+    }
+
+    private static int hexValue(CharSequence hex, int index) {
+        char c = hex.charAt(index);
+        int value = c < 128 ? HEX_VALUES[c] : -1;
+        if (value < 0) {
+            throw new NumberFormatException("Invalid hex digit '" + c + "' at index " + index);
+        }
+        return value;
+    }
+
+    private static int base64Value(CharSequence base64, int index) {
+        char c = base64.charAt(index);
+        int value = c < 128 ? BASE64_VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Base64 character '" + c + "' at index " + index);
+        }
+        return value;
+    }
+}
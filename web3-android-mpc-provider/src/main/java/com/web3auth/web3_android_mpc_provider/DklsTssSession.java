@@ -0,0 +1,79 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.web3auth.tss_client_android.client.TSSClient;
+import com.web3auth.tss_client_android.client.TSSClientError;
+import com.web3auth.tss_client_android.client.TSSHelpers;
+import com.web3auth.tss_client_android.client.util.Secp256k1;
+import com.web3auth.tss_client_android.client.util.Triple;
+import com.web3auth.tss_client_android.dkls.Precompute;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A bootstrapped DKLS TSS client for one account.
+ */
+final class DklsTssSession extends TssSession {
+    final TSSClient client;
+    private Precompute precompute;
+
+    private DklsTssSession(TssAccountContext context, TssAccountContext.NodeSet nodes, TSSClient client) {
+        super(context, nodes);
+        this.client = client;
+    }
+
+    static DklsTssSession bootstrap(TssAccountContext context, TssAccountContext.NodeSet nodes) throws TSSClientError {
+        String session = assembleSession(context.params);
+
+        TSSClient client = new TSSClient(session, TssAccountContext.CLIENT_INDEX, nodes.partyIndexes.clone(),
+                nodes.endpoints.clone(), nodes.socketUrls.clone(), nodes.base64Share(), context.base64PublicKey);
+
+        return new DklsTssSession(context, nodes, client);
+    }
+
+    static String assembleSession(EthTssAccountParams params) throws TSSClientError {
+        BigInteger randomKey = new BigInteger(1, Secp256k1.GenerateECKey());
+        BigInteger random = randomKey.add(BigInteger.valueOf(System.currentTimeMillis() / 1000));
+        String sessionNonce = TSSHelpers.base64ToBase64url(TSSHelpers.hashMessage(Arrays.toString(random.toByteArray())));
+        return TSSHelpers.assembleFullSession(params.verifier, params.verifierID,
+                params.selectedTag, String.valueOf(params.tssNonce), sessionNonce);
+    }
+
+    @Override
+    boolean checkConnected() {
+        try {
+            return client.checkConnected();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    void precompute() throws TSSClientError {
+        precompute = client.precompute(nodes.coeffs, Arrays.asList(params.authSigs));
+        precomputedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    boolean isReady() {
+        try {
+            return client.isReady();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    Triple<BigInteger, BigInteger, Byte> sign(String hash) throws TSSClientError {
+        return client.sign(hash, true, null, precompute, Arrays.asList(params.authSigs));
+    }
+
+    @Override
+    void close() {
+        try {
+            client.cleanup(params.authSigs);
+        } catch (Exception ignored) {
+            // the nodes drop abandoned sessions on their own
+        }
+    }
+}
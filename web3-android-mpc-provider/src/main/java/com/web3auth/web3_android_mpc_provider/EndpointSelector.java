@@ -0,0 +1,174 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the threshold subset of TSS nodes to sign with. Latency and error rates are tracked per
+ * node endpoint as moving averages and the subset whose slowest, error weighted node is expected
+ * to be fastest wins. The client does not report timings per node, so every observation of a
+ * subset is attributed to each of its nodes; nodes that keep appearing in failing or slow
+ * subsets therefore drift to the bottom.
+ */
+public class EndpointSelector {
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double ERROR_PENALTY = 10;
+    private static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final EndpointSelector DEFAULT_SELECTOR = new EndpointSelector();
+
+    final int maxAttempts;
+    private final Map<String, NodeStats> stats = new ConcurrentHashMap<>();
+
+    public EndpointSelector() {
+        this(DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public EndpointSelector(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    public static EndpointSelector getDefault() {
+        return DEFAULT_SELECTOR;
+    }
+
+    /**
+     * Returns the best subset of the account's candidate nodes that is not excluded, or the best
+     * excluded one when every subset has been excluded.
+     */
+    List<BigInteger> select(TssAccountContext context, Collection<List<BigInteger>> excluded) {
+        List<List<BigInteger>> subsets = new ArrayList<>();
+        combinations(context.candidateNodes, TssAccountContext.THRESHOLD, 0, new ArrayList<>(), subsets);
+
+        double slowestLatency = MIN_LATENCY_NANOS;
+        for (NodeStats nodeStats : stats.values()) {
+            slowestLatency = Math.max(slowestLatency, nodeStats.latencyNanos);
+        }
+
+        List<BigInteger> best = null;
+        double bestScore = Double.MAX_VALUE;
+        List<BigInteger> bestExcluded = null;
+        double bestExcludedScore = Double.MAX_VALUE;
+        for (List<BigInteger> subset : subsets) {
+            double score = score(context, subset, slowestLatency);
+            if (excluded.contains(subset)) {
+                if (score < bestExcludedScore) {
+                    bestExcluded = subset;
+                    bestExcludedScore = score;
+                }
+            } else if (score < bestScore) {
+                best = subset;
+                bestScore = score;
+            }
+        }
+        return best != null ? best : bestExcluded;
+    }
+
+    void recordSuccess(List<String> endpoints, long latencyNanos) {
+        for (String endpoint : endpoints) {
+            stats(endpoint).record(latencyNanos, false);
+        }
+    }
+
+    void recordFailure(List<String> endpoints) {
+        for (String endpoint : endpoints) {
+            stats(endpoint).record(0, true);
+        }
+    }
+
+    public double getLatencyMillis(String endpoint) {
+        NodeStats nodeStats = stats.get(endpoint);
+        return nodeStats == null ? 0 : nodeStats.latencyNanos / 1_000_000d;
+    }
+
+    public double getErrorRate(String endpoint) {
+        NodeStats nodeStats = stats.get(endpoint);
+        return nodeStats == null ? 0 : nodeStats.errorRate;
+    }
+
+    /**
+     * Returns the latency and error rate averages of the endpoint, or {@code null} when it has not been used yet.
+     */
+    @Nullable
+    double[] snapshot(String endpoint) {
+        NodeStats nodeStats = stats.get(endpoint);
+        return nodeStats == null ? null : new double[]{nodeStats.latencyNanos, nodeStats.errorRate};
+    }
+
+    /**
+     * Seeds the averages of an endpoint that has not been used in this process yet, e.g. from an
+     * {@link AccountStateStore}.
+     */
+    void restore(String endpoint, double latencyNanos, double errorRate) {
+        NodeStats nodeStats = new NodeStats();
+        nodeStats.latencyNanos = latencyNanos;
+        nodeStats.errorRate = errorRate;
+        stats.putIfAbsent(endpoint, nodeStats);
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private double score(TssAccountContext context, List<BigInteger> subset, double slowestLatency) {
+        double score = 0;
+        for (BigInteger node : subset) {
+            NodeStats nodeStats = stats.get(context.endpointOf(node));
+            double expected = MIN_LATENCY_NANOS;
+            if (nodeStats != null) {
+                // a node that has only failed so far is assumed to be as slow as the slowest node seen
+                double latency = nodeStats.latencyNanos != 0 ? nodeStats.latencyNanos : slowestLatency;
+                expected = Math.max(latency, MIN_LATENCY_NANOS) * (1 + ERROR_PENALTY * nodeStats.errorRate);
+            }
+            score = Math.max(score, expected);
+        }
+        return score;
+    }
+
+    private NodeStats stats(String endpoint) {
+        NodeStats nodeStats = stats.get(endpoint);
+        if (nodeStats == null) {
+            nodeStats = new NodeStats();
+            NodeStats existing = stats.putIfAbsent(endpoint, nodeStats);
+            if (existing != null) {
+                nodeStats = existing;
+            }
+        }
+        return nodeStats;
+    }
+
+    private static void combinations(List<BigInteger> nodes, int size, int start, List<BigInteger> current, List<List<BigInteger>> result) {
+        if (current.size() == size) {
+            result.add(new ArrayList<>(current));
+            return;
+        }
+        for (int i = start; i <= nodes.size() - (size - current.size()); i++) {
+            current.add(nodes.get(i));
+            combinations(nodes, size, i + 1, current, result);
+            current.remove(current.size() - 1);
+        }
+    }
+
+    private static final class NodeStats {
+        volatile double latencyNanos;
+        volatile double errorRate;
+
+        synchronized void record(long latency, boolean failed) {
+            if (!failed) {
+                latencyNanos = latencyNanos == 0 ? latency : latencyNanos + SMOOTHING * (latency - latencyNanos);
+            }
+            errorRate += SMOOTHING * ((failed ? 1 : 0) - errorRate);
+        }
+    }
+}
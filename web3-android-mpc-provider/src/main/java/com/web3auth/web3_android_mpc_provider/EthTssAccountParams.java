@@ -1,6 +1,8 @@
 package com.web3auth.web3_android_mpc_provider;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
 
 public final class EthTssAccountParams {
     final String publicKey;
@@ -28,5 +30,32 @@ public final class EthTssAccountParams {
         this.tssEndpoints = tssEndpoints;
         this.authSigs = authSigs;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EthTssAccountParams that = (EthTssAccountParams) o;
+        return tssNonce == that.tssNonce &&
+                Objects.equals(publicKey, that.publicKey) &&
+                Objects.equals(factorKey, that.factorKey) &&
+                Objects.equals(tssShare, that.tssShare) &&
+                Objects.equals(tssIndex, that.tssIndex) &&
+                Objects.equals(selectedTag, that.selectedTag) &&
+                Objects.equals(verifier, that.verifier) &&
+                Objects.equals(verifierID, that.verifierID) &&
+                Arrays.equals(nodeIndexes, that.nodeIndexes) &&
+                Arrays.equals(tssEndpoints, that.tssEndpoints) &&
+                Arrays.equals(authSigs, that.authSigs);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(publicKey, factorKey, tssNonce, tssShare, tssIndex, selectedTag, verifier, verifierID);
+        result = 31 * result + Arrays.hashCode(nodeIndexes);
+        result = 31 * result + Arrays.hashCode(tssEndpoints);
+        result = 31 * result + Arrays.hashCode(authSigs);
+        return result;
+    }
 }
 
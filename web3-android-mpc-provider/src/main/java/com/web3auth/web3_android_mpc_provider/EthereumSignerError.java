@@ -7,6 +7,10 @@ public class EthereumSignerError extends Error {
         this.errorType = errorType;
     }
 
+    public ErrorType getErrorType() {
+        return errorType;
+    }
+
     public String getErrorDescription() {
         switch (errorType) {
             case EMPTY_RAW_TRANSACTION:
@@ -15,6 +19,12 @@ public class EthereumSignerError extends Error {
                 return "insufficientFunds";
             case UNKNOWN_ERROR:
                 return "unknownError";
+            case SIGNING_QUEUE_FULL:
+                return "signingQueueFull";
+            case SIGNING_TIMEOUT:
+                return "signingTimeout";
+            case SIGNING_CANCELLED:
+                return "signingCancelled";
             default:
                 return "unknown error";
         }
@@ -23,7 +33,10 @@ public class EthereumSignerError extends Error {
     public enum ErrorType {
         EMPTY_RAW_TRANSACTION,
         INSUFFICIENT_FUNDS,
-        UNKNOWN_ERROR
+        UNKNOWN_ERROR,
+        SIGNING_QUEUE_FULL,
+        SIGNING_TIMEOUT,
+        SIGNING_CANCELLED
     }
 }
 
@@ -1,31 +1,16 @@
 package com.web3auth.web3_android_mpc_provider;
 
-import static org.web3j.utils.Numeric.hexStringToByteArray;
-
-import android.util.Base64;
-import android.util.Pair;
-
 import androidx.annotation.Nullable;
 
-import com.web3auth.tss_client_android.client.EndpointsData;
-import com.web3auth.tss_client_android.client.TSSClient;
 import com.web3auth.tss_client_android.client.TSSClientError;
 import com.web3auth.tss_client_android.client.TSSHelpers;
-import com.web3auth.tss_client_android.client.util.Secp256k1;
 import com.web3auth.tss_client_android.client.util.Triple;
-import com.web3auth.tss_client_android.dkls.Precompute;
 
-import org.web3j.crypto.Hash;
 import org.web3j.crypto.Keys;
 import org.web3j.crypto.RawTransaction;
-import org.web3j.crypto.Sign;
-import org.web3j.crypto.StructuredDataEncoder;
 import org.web3j.crypto.TransactionEncoder;
 import org.web3j.protocol.Web3j;
-import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.response.EthChainId;
-import org.web3j.protocol.core.methods.response.EthGasPrice;
-import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
 import org.web3j.utils.Convert;
 import org.web3j.utils.Numeric;
 
@@ -33,17 +18,66 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class EthereumTssAccount {
 
+    public static final int DEFAULT_BATCH_PARALLELISM = 4;
+
+    private static final AtomicInteger DEFAULT_THREAD_COUNT = new AtomicInteger();
+    // daemon threads, so that signatures still running never keep the process from exiting
+    private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mpc-account-" + DEFAULT_THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long STATE_SAVE_INTERVAL_MILLIS = 60_000;
+
     public EthTssAccountParams ethAccountParams;
     public String evmAddress;
+    public TssSessionPool sessionPool;
+    @Nullable
+    public PrecomputeBuffer precomputeBuffer;
+    public Executor executor = DEFAULT_EXECUTOR;
+    public NonceManager nonceManager;
+    public SigningListener signingListener = SigningListener.NONE;
+    public SigningScheduler scheduler = SigningScheduler.getDefault();
+    public FeeEstimator feeEstimator = FeeHistoryOracle.getDefault();
+    @Nullable
+    public SignatureCache signatureCache;
+    @Nullable
+    public AccountStateStore stateStore;
+    private volatile TssAccountContext context;
+    private final Object contextLock = new Object();
+    private final AtomicBoolean savingState = new AtomicBoolean();
+    private volatile long stateSavedAt;
+    // the chain id of an RPC endpoint never changes, so it is looked up once per Web3j instance
+    private final Map<Web3j, CompletableFuture<BigInteger>> chainIds = new ConcurrentHashMap<>();
+    // message and typed data signatures in progress, so that concurrent requests for a digest share one TSS run;
+    // completed with null when the caller running it gave up, so that a waiting caller signs instead
+    private final Map<String, CompletableFuture<String>> pendingSignatures = new ConcurrentHashMap<>();
 
     public EthereumTssAccount(EthTssAccountParams params) {
+        this(params, TssSessionPool.getDefault());
+    }
+
+    public EthereumTssAccount(EthTssAccountParams params, TssSessionPool sessionPool) {
         ethAccountParams = params;
+        this.sessionPool = sessionPool;
         String prefix = "04";
         String key;
         if (params.publicKey.startsWith(prefix)) {
@@ -52,10 +86,362 @@ public class EthereumTssAccount {
             key = params.publicKey;
         }
         evmAddress = Keys.toChecksumAddress(Keys.getAddress(key));
+        nonceManager = NonceManager.forAddress(evmAddress);
     }
 
     public String signMessage(String message) throws TSSClientError, CustomSigningError {
         String hash = TSSHelpers.hashMessage(message);
+        return signHash(SignatureCache.PayloadType.MESSAGE, hash);
+    }
+
+    public String signTypedData(String jsonData) throws IOException, TSSClientError, CustomSigningError {
+        return signHash(SignatureCache.PayloadType.TYPED_DATA, hashTypedData(jsonData));
+    }
+
+    public List<SignResult> signMessageBatch(List<String> messages) {
+        return signMessageBatch(messages, DEFAULT_BATCH_PARALLELISM);
+    }
+
+    public List<SignResult> signMessageBatch(List<String> messages, int parallelism) {
+        return signBatch(messages, this::signMessage, parallelism);
+    }
+
+    public List<SignResult> signTypedDataBatch(List<String> jsonData) {
+        return signTypedDataBatch(jsonData, DEFAULT_BATCH_PARALLELISM);
+    }
+
+    public List<SignResult> signTypedDataBatch(List<String> jsonData, int parallelism) {
+        return signBatch(jsonData, this::signTypedData, parallelism);
+    }
+
+    /**
+     * Signs transactions built by the caller, e.g. a series with consecutive nonces. Each result
+     * is the signed transaction, ready for {@code eth_sendRawTransaction}.
+     */
+    public List<SignResult> signTransactionBatch(List<RawTransaction> rawTransactions, long chainId) {
+        return signTransactionBatch(rawTransactions, chainId, DEFAULT_BATCH_PARALLELISM);
+    }
+
+    public List<SignResult> signTransactionBatch(List<RawTransaction> rawTransactions, long chainId, int parallelism) {
+        return signBatch(rawTransactions, rawTransaction -> signRawTransaction(rawTransaction, chainId), parallelism);
+    }
+
+    /**
+     * Signs unsigned RLP encoded transactions, see {@link #signEncodedTransaction(String, long)}.
+     */
+    public List<SignResult> signEncodedTransactionBatch(List<String> unsignedTransactions, long chainId) {
+        return signEncodedTransactionBatch(unsignedTransactions, chainId, DEFAULT_BATCH_PARALLELISM);
+    }
+
+    public List<SignResult> signEncodedTransactionBatch(List<String> unsignedTransactions, long chainId, int parallelism) {
+        return signBatch(unsignedTransactions, unsignedTransaction -> signEncodedTransaction(unsignedTransaction, chainId), parallelism);
+    }
+
+    /**
+     * Signs a new legacy transaction with the next nonce of the {@link #nonceManager} and the chain
+     * id and gas price of {@code web3j}. A signed transaction consumes its nonce: when it is not
+     * broadcast, give the nonce back with {@link NonceManager#release(long, BigInteger)}, or later
+     * transactions wait behind the gap until the manager resyncs. Failed signatures give their
+     * nonce back themselves.
+     */
+    public String signLegacyTransaction(Web3j web3j, String toAddress, Double amount, @Nullable String data, BigInteger gasLimit) throws TSSClientError, CustomSigningError, ExecutionException, InterruptedException {
+        CompletableFuture<BigInteger> chainIdFuture = getChainId(web3j);
+        CompletableFuture<BigInteger> nonceFuture = acquireNonce(web3j, chainIdFuture);
+        CompletableFuture<FeeSuggestion> feeFuture = timed(SigningStage.RPC_GAS_PRICE, feeEstimator.suggest(web3j));
+        try {
+            BigInteger chainId = chainIdFuture.get();
+            BigInteger nonce = nonceFuture.get();
+            FeeSuggestion fees = feeFuture.get();
+
+            RawTransaction rawTransaction = createLegacyTransaction(nonce, fees, toAddress, amount, data, gasLimit);
+            return signRawTransaction(rawTransaction, chainId.longValue());
+        } catch (Throwable e) {
+            releaseNonce(chainIdFuture, nonceFuture);
+            throw e;
+        }
+    }
+
+    /**
+     * Signs a new EIP-1559 transaction with the next nonce of the {@link #nonceManager} and the chain
+     * id and fees of {@code web3j}. A signed transaction that is not broadcast has to give its nonce
+     * back, see {@link #signLegacyTransaction(Web3j, String, Double, String, BigInteger)}.
+     */
+    public String signTransaction(Web3j web3j, String toAddress, Double amount, Double minerTip, @Nullable String data, BigInteger gasLimit) throws TSSClientError, CustomSigningError, ExecutionException, InterruptedException, IOException {
+        CompletableFuture<BigInteger> chainIdFuture = getChainId(web3j);
+        CompletableFuture<BigInteger> nonceFuture = acquireNonce(web3j, chainIdFuture);
+        CompletableFuture<FeeSuggestion> feeFuture = timed(SigningStage.RPC_GAS_PRICE, feeEstimator.suggest(web3j));
+        try {
+            BigInteger chainId = chainIdFuture.get();
+            BigInteger nonce = nonceFuture.get();
+            FeeSuggestion fees = feeFuture.get();
+
+            RawTransaction rawTransaction = createTransaction(chainId, nonce, fees, toAddress, amount, minerTip, data, gasLimit);
+            return signRawTransaction(rawTransaction, chainId.longValue());
+        } catch (Throwable e) {
+            releaseNonce(chainIdFuture, nonceFuture);
+            throw e;
+        }
+    }
+
+    /**
+     * Signs a transaction built by the caller, e.g. ahead of time or by another component. Legacy
+     * transactions are signed with EIP-155 replay protection for {@code chainId}, EIP-1559
+     * transactions have to be built for {@code chainId}.
+     *
+     * @return the signed transaction, ready for {@code eth_sendRawTransaction}
+     */
+    public String signRawTransaction(RawTransaction rawTransaction, long chainId) throws TSSClientError, CustomSigningError {
+        return signEncodedTransaction(TransactionEncoder.encode(rawTransaction), chainId);
+    }
+
+    /**
+     * Signs an unsigned RLP encoded transaction: a legacy transaction, plain or in its EIP-155
+     * signing form, or an EIP-2930 or EIP-1559 typed transaction. Access lists are kept as given.
+     *
+     * @param unsignedTransaction the hex encoded transaction
+     * @return the signed transaction, ready for {@code eth_sendRawTransaction}
+     */
+    public String signEncodedTransaction(String unsignedTransaction, long chainId) throws TSSClientError, CustomSigningError {
+        return signEncodedTransaction(Numeric.hexStringToByteArray(unsignedTransaction), chainId);
+    }
+
+    public CompletableFuture<String> signMessageAsync(String message) {
+        return signMessageAsync(message, executor);
+    }
+
+    public CompletableFuture<String> signMessageAsync(String message, Executor executor) {
+        return signHashAsync(SignatureCache.PayloadType.MESSAGE, () -> TSSHelpers.hashMessage(message), executor);
+    }
+
+    public CompletableFuture<String> signTypedDataAsync(String jsonData) {
+        return signTypedDataAsync(jsonData, executor);
+    }
+
+    public CompletableFuture<String> signTypedDataAsync(String jsonData, Executor executor) {
+        return signHashAsync(SignatureCache.PayloadType.TYPED_DATA, () -> hashTypedData(jsonData), executor);
+    }
+
+    /**
+     * See {@link #signLegacyTransaction(Web3j, String, Double, String, BigInteger)}, including the
+     * release of the nonce when the signed transaction is not broadcast.
+     */
+    public CompletableFuture<String> signLegacyTransactionAsync(Web3j web3j, String toAddress, Double amount, @Nullable String data, BigInteger gasLimit) {
+        return signLegacyTransactionAsync(web3j, toAddress, amount, data, gasLimit, executor);
+    }
+
+    public CompletableFuture<String> signLegacyTransactionAsync(Web3j web3j, String toAddress, Double amount, @Nullable String data, BigInteger gasLimit, Executor executor) {
+        return signNewTransactionAsync(web3j, (chainId, nonce, fees) ->
+                createLegacyTransaction(nonce, fees, toAddress, amount, data, gasLimit), executor);
+    }
+
+    /**
+     * See {@link #signTransaction(Web3j, String, Double, Double, String, BigInteger)}, including the
+     * release of the nonce when the signed transaction is not broadcast.
+     */
+    public CompletableFuture<String> signTransactionAsync(Web3j web3j, String toAddress, Double amount, Double minerTip, @Nullable String data, BigInteger gasLimit) {
+        return signTransactionAsync(web3j, toAddress, amount, minerTip, data, gasLimit, executor);
+    }
+
+    public CompletableFuture<String> signTransactionAsync(Web3j web3j, String toAddress, Double amount, Double minerTip, @Nullable String data, BigInteger gasLimit, Executor executor) {
+        return signNewTransactionAsync(web3j, (chainId, nonce, fees) ->
+                createTransaction(chainId, nonce, fees, toAddress, amount, minerTip, data, gasLimit), executor);
+    }
+
+    public CompletableFuture<String> signRawTransactionAsync(RawTransaction rawTransaction, long chainId) {
+        return signRawTransactionAsync(rawTransaction, chainId, executor);
+    }
+
+    public CompletableFuture<String> signRawTransactionAsync(RawTransaction rawTransaction, long chainId, Executor executor) {
+        return supplyScheduledAsync(() -> signRawTransaction(rawTransaction, chainId), executor);
+    }
+
+    public CompletableFuture<String> signEncodedTransactionAsync(String unsignedTransaction, long chainId) {
+        return signEncodedTransactionAsync(unsignedTransaction, chainId, executor);
+    }
+
+    public CompletableFuture<String> signEncodedTransactionAsync(String unsignedTransaction, long chainId, Executor executor) {
+        return supplyScheduledAsync(() -> signEncodedTransaction(unsignedTransaction, chainId), executor);
+    }
+
+    private CompletableFuture<BigInteger> getChainId(Web3j web3j) {
+        CompletableFuture<BigInteger> chainId = chainIds.computeIfAbsent(web3j,
+                client -> timed(SigningStage.RPC_CHAIN_ID, client.ethChainId().sendAsync()).thenApply(EthChainId::getChainId));
+        chainId.whenComplete((id, error) -> {
+            if (error != null) {
+                chainIds.remove(web3j, chainId);
+            }
+        });
+        return chainId;
+    }
+
+    private static String hashTypedData(String jsonData) throws IOException {
+        return Codec.encodeBase64(StreamingStructuredDataEncoder.hashStructuredData(jsonData));
+    }
+
+    private String signHash(SignatureCache.PayloadType type, String hash) throws TSSClientError, CustomSigningError {
+        while (true) {
+            String cachedSignature = getCachedSignature(type, hash);
+            if (cachedSignature != null) {
+                return cachedSignature;
+            }
+
+            CompletableFuture<String> pending = new CompletableFuture<>();
+            CompletableFuture<String> inProgress = pendingSignatures.putIfAbsent(hash, pending);
+            if (inProgress != null) {
+                String signature = await(inProgress);
+                if (signature != null) {
+                    return signature;
+                }
+                continue;
+            }
+            try {
+                String signature = signHash(hash);
+                putCachedSignature(type, hash, signature);
+                pendingSignatures.remove(hash, pending);
+                pending.complete(signature);
+                return signature;
+            } catch (Throwable e) {
+                pendingSignatures.remove(hash, pending);
+                SigningTask task = SigningTask.current();
+                if (isAbandoned(e) || Thread.currentThread().isInterrupted() || (task != null && task.isCancelled())) {
+                    pending.complete(null);
+                } else {
+                    pending.completeExceptionally(e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Hashes the payload on the executor, then answers from the cache or joins a signature of the
+     * same digest in progress. Only a caller that signs itself waits for a {@link SigningScheduler}
+     * slot, so a joined or cached signature neither waits behind other signatures nor holds a slot
+     * the signature it waits for needs.
+     */
+    private CompletableFuture<String> signHashAsync(SignatureCache.PayloadType type, Callable<String> hasher, Executor executor) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> hashFuture = SigningTask.supplyAsync(hasher, executor);
+        result.whenComplete((signature, error) -> {
+            if (result.isCancelled()) {
+                hashFuture.cancel(false);
+            }
+        });
+        hashFuture.whenComplete((hash, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (!result.isDone()) {
+                completeWith(result, signHashAsync(type, hash, executor));
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<String> signHashAsync(SignatureCache.PayloadType type, String hash, Executor executor) {
+        String cachedSignature = getCachedSignature(type, hash);
+        if (cachedSignature != null) {
+            return CompletableFuture.completedFuture(cachedSignature);
+        }
+
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> inProgress = pendingSignatures.putIfAbsent(hash, pending);
+        if (inProgress != null) {
+            // a separate future, so that cancelling this caller does not cancel the signature it joined
+            CompletableFuture<String> joined = new CompletableFuture<>();
+            inProgress.whenComplete((signature, error) -> {
+                if (error != null) {
+                    joined.completeExceptionally(error);
+                } else if (signature != null) {
+                    joined.complete(signature);
+                } else if (!joined.isDone()) {
+                    completeWith(joined, signHashAsync(type, hash, executor));
+                }
+            });
+            return joined;
+        }
+        CompletableFuture<String> signature;
+        try {
+            signature = supplyScheduledAsync(() -> signHash(hash), executor);
+        } catch (Throwable e) {
+            pendingSignatures.remove(hash, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        signature.whenComplete((value, error) -> {
+            if (error == null) {
+                putCachedSignature(type, hash, value);
+            }
+            pendingSignatures.remove(hash, pending);
+            if (error == null) {
+                pending.complete(value);
+            } else if (isAbandoned(error)) {
+                pending.complete(null);
+            } else {
+                pending.completeExceptionally(error);
+            }
+        });
+        return signature;
+    }
+
+    /**
+     * Returns whether a signature failed because its caller gave up on it, by cancelling it or
+     * after waiting too long for a slot, rather than because signing the digest failed.
+     */
+    private static boolean isAbandoned(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return true;
+        }
+        if (cause instanceof EthereumSignerError) {
+            EthereumSignerError.ErrorType type = ((EthereumSignerError) cause).getErrorType();
+            return type == EthereumSignerError.ErrorType.SIGNING_CANCELLED || type == EthereumSignerError.ErrorType.SIGNING_TIMEOUT;
+        }
+        return false;
+    }
+
+    @Nullable
+    private String getCachedSignature(SignatureCache.PayloadType type, String hash) {
+        SignatureCache cache = signatureCache;
+        return cache != null && cache.isEnabled(type) ? cache.get(evmAddress, hash) : null;
+    }
+
+    private void putCachedSignature(SignatureCache.PayloadType type, String hash, String signature) {
+        SignatureCache cache = signatureCache;
+        if (cache != null && cache.isEnabled(type)) {
+            cache.put(evmAddress, hash, signature);
+        }
+    }
+
+    /**
+     * Waits for a signature started by another caller and rethrows its failure as is. Interrupting
+     * or cancelling the waiting caller only stops the wait, the other caller still gets its signature.
+     *
+     * @return {@code null} when the other caller gave up on the signature
+     */
+    @Nullable
+    private static String await(CompletableFuture<String> signature) throws TSSClientError, CustomSigningError {
+        checkCancelled();
+        try {
+            return signature.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EthereumSignerError(EthereumSignerError.ErrorType.SIGNING_CANCELLED);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TSSClientError) {
+                throw (TSSClientError) cause;
+            } else if (cause instanceof CustomSigningError) {
+                throw (CustomSigningError) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private String signHash(String hash) throws TSSClientError, CustomSigningError {
         Triple<BigInteger, BigInteger, Byte> signatureResult = sign(hash);
         Byte v = signatureResult.getThird();
         if (v < 27) {
@@ -64,25 +450,163 @@ public class EthereumTssAccount {
         return TSSHelpers.hexSignature(signatureResult.getFirst(), signatureResult.getSecond(), v);
     }
 
-    public String signTypedData(String jsonData) throws IOException, TSSClientError, CustomSigningError {
-        StructuredDataEncoder dataEncoder = new StructuredDataEncoder(jsonData);
-        byte[] hashStructuredData = dataEncoder.hashStructuredData();
-        String structuredData = android.util.Base64.encodeToString(hashStructuredData, Base64.NO_WRAP);
-        Triple<BigInteger, BigInteger, Byte> signatureResult = sign(structuredData);
-        Byte v = signatureResult.getThird();
-        if (v < 27) {
-            v = (byte) (v + 27);
+    /**
+     * Signs every item on up to {@code parallelism} concurrent TSS sessions, so that the session
+     * handshakes and precomputes of the batch overlap. Results are returned in input order.
+     * <p>
+     * The calling thread signs items itself and only waits for items a helper on the
+     * {@link #executor} already took, so a batch started on a thread of a bounded executor cannot
+     * wait for a thread of that executor to become free.
+     */
+    private <T> List<SignResult> signBatch(List<T> items, BatchItemSigner<T> signer, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
         }
-        return TSSHelpers.hexSignature(signatureResult.getFirst(), signatureResult.getSecond(), v);
+        SignResult[] results = new SignResult[items.size()];
+        AtomicInteger nextIndex = new AtomicInteger();
+        CountDownLatch remaining = new CountDownLatch(results.length);
+        Runnable worker = () -> {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < results.length) {
+                try {
+                    results[index] = SignResult.success(signer.sign(items.get(index)));
+                } catch (Throwable e) {
+                    results[index] = SignResult.failure(e);
+                } finally {
+                    remaining.countDown();
+                }
+            }
+        };
+        for (int i = 1; i < Math.min(parallelism, results.length); i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        worker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                remaining.await();
+                break;
+            } catch (InterruptedException e) {
+                // the items in flight hold sessions, so they are finished rather than abandoned
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Looks up the nonce, chain id and fees of a new transaction and signs it on the executor.
+     * Cancelling the returned future cancels the signature, and the nonce is given back unless the
+     * transaction was signed.
+     */
+    private CompletableFuture<String> signNewTransactionAsync(Web3j web3j, TransactionFactory factory, Executor executor) {
+        CompletableFuture<BigInteger> chainIdFuture = getChainId(web3j);
+        CompletableFuture<BigInteger> nonceFuture = acquireNonce(web3j, chainIdFuture);
+        CompletableFuture<FeeSuggestion> feeFuture = timed(SigningStage.RPC_GAS_PRICE, feeEstimator.suggest(web3j));
+        CompletableFuture<String> result = new CompletableFuture<>();
+        result.whenComplete((transaction, error) -> {
+            if (error != null) {
+                releaseNonce(chainIdFuture, nonceFuture);
+            }
+        });
+        CompletableFuture.allOf(chainIdFuture, nonceFuture, feeFuture).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                // cancelled while the RPC calls were running
+                return;
+            }
+            BigInteger chainId = chainIdFuture.join();
+            RawTransaction rawTransaction;
+            try {
+                rawTransaction = factory.create(chainId, nonceFuture.join(), feeFuture.join());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            completeWith(result, supplyScheduledAsync(() -> signRawTransaction(rawTransaction, chainId.longValue()), executor));
+        });
+        return result;
     }
 
+    /**
+     * Waits for a {@link SigningScheduler} slot without holding a thread of the executor, then
+     * runs the call on the executor. Cancelling the returned future leaves the queue or cancels
+     * the running {@link SigningTask}.
+     */
+    private <T> CompletableFuture<T> supplyScheduledAsync(Callable<T> call, Executor executor) {
+        long start = System.nanoTime();
+        CompletableFuture<SigningScheduler.Permit> permitFuture = scheduler.acquireAsync(evmAddress);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                permitFuture.cancel(false);
+            }
+        });
+        permitFuture.whenComplete((permit, error) -> {
+            report(SigningStage.QUEUE, null, start, error);
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                // cancelled while the slot was being granted
+                permit.close();
+                return;
+            }
+            CompletableFuture<T> task;
+            try {
+                task = SigningTask.supplyAsync(call, executor, permit);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            completeWith(result, task);
+        });
+        return result;
+    }
 
-    public String signLegacyTransaction(Web3j web3j, String toAddress, Double amount, @Nullable String data, BigInteger gasLimit) throws TSSClientError, CustomSigningError, ExecutionException, InterruptedException {
-        EthChainId chainIdResponse = web3j.ethChainId().sendAsync().get();
-        BigInteger chainId = chainIdResponse.getChainId();
-        EthGetTransactionCount countResponse = web3j.ethGetTransactionCount(
-                evmAddress, DefaultBlockParameterName.LATEST).sendAsync().get();
-        BigInteger nonce = countResponse.getTransactionCount();
+    /**
+     * Completes the result with the outcome of the task, and cancels the task when the result is cancelled.
+     */
+    private static <T> void completeWith(CompletableFuture<T> result, CompletableFuture<T> task) {
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(false);
+            }
+        });
+        task.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private CompletableFuture<BigInteger> acquireNonce(Web3j web3j, CompletableFuture<BigInteger> chainIdFuture) {
+        return chainIdFuture.thenCompose(chainId -> timed(SigningStage.RPC_NONCE, nonceManager.acquire(web3j, chainId.longValue())));
+    }
+
+    /**
+     * Gives back the nonce of a transaction that was not signed, once the nonce is known, so that
+     * a caller giving up while it is looked up does not leave a gap.
+     */
+    private void releaseNonce(CompletableFuture<BigInteger> chainIdFuture, CompletableFuture<BigInteger> nonceFuture) {
+        nonceFuture.thenAccept(nonce -> nonceManager.release(chainIdFuture.join().longValue(), nonce));
+    }
+
+    private RawTransaction createLegacyTransaction(BigInteger nonce, FeeSuggestion fees, String toAddress, Double amount, @Nullable String data, BigInteger gasLimit) {
         BigInteger value = Convert.toWei(Double.toString(amount), Convert.Unit.ETHER).toBigInteger();
 
         String txData = "";
@@ -90,54 +614,28 @@ public class EthereumTssAccount {
             txData = data;
         }
 
-        RawTransaction rawTransaction = RawTransaction.createTransaction(
-                chainId,
+        return RawTransaction.createTransaction(
                 nonce,
+                fees.gasPrice(),
                 gasLimit,
                 toAddress,
                 value,
                 txData
         );
-
-        byte[] encodedTransaction = TransactionEncoder.encode(rawTransaction);
-        String encodedTransactionString = Base64.encodeToString(Hash.sha3(encodedTransaction), Base64.NO_WRAP);
-
-        Triple<BigInteger, BigInteger, Byte> signatureResult = sign(encodedTransactionString);
-
-        Byte v = signatureResult.getThird();
-        if (v < 27) {
-            v = (byte) (v + 27);
-        }
-
-        Sign.SignatureData signatureData = new Sign.SignatureData(v,
-                signatureResult.getSecond().toByteArray(),
-                signatureResult.getFirst().toByteArray());
-
-        byte[] signedTransaction = TransactionEncoder.encode(rawTransaction, signatureData);
-
-        return Numeric.toHexString(signedTransaction);
     }
 
-    public String signTransaction(Web3j web3j, String toAddress, Double amount, Double minerTip, @Nullable String data, BigInteger gasLimit) throws TSSClientError, CustomSigningError, ExecutionException, InterruptedException, IOException {
-        EthChainId chainIdResponse = web3j.ethChainId().sendAsync().get();
-        BigInteger chainId = chainIdResponse.getChainId();
-        EthGetTransactionCount countResponse = web3j.ethGetTransactionCount(
-                evmAddress, DefaultBlockParameterName.LATEST).sendAsync().get();
-        BigInteger nonce = countResponse.getTransactionCount();
-        EthGasPrice gasPriceResponse = web3j.ethGasPrice().send();
-        BigInteger gasPrice = gasPriceResponse.getGasPrice();
-
+    private RawTransaction createTransaction(BigInteger chainId, BigInteger nonce, FeeSuggestion fees, String toAddress, Double amount, Double minerTip, @Nullable String data, BigInteger gasLimit) {
         BigInteger value = Convert.toWei(Double.toString(amount), Convert.Unit.ETHER).toBigInteger();
         BigInteger maxPriorityFeePerGas = Convert.toWei(Double.toString(minerTip), Convert.Unit.ETHER).toBigInteger();
 
-        BigInteger maxFeePerGas = gasPrice.add(maxPriorityFeePerGas);
+        BigInteger maxFeePerGas = fees.maxFeePerGas(maxPriorityFeePerGas);
 
         String txData = "";
         if (data != null) {
             txData = data;
         }
 
-        RawTransaction rawTransaction = RawTransaction.createTransaction(
+        return RawTransaction.createTransaction(
                 chainId.longValue(),
                 nonce,
                 gasLimit,
@@ -147,116 +645,303 @@ public class EthereumTssAccount {
                 maxPriorityFeePerGas,
                 maxFeePerGas
         );
+    }
 
-        byte[] encodedTransaction = TransactionEncoder.encode(rawTransaction);
-        String encodedTransactionString = Base64.encodeToString(Hash.sha3(encodedTransaction), Base64.NO_WRAP);
-
-        Triple<BigInteger, BigInteger, Byte> signatureResult = sign(encodedTransactionString);
-
-        Byte v = signatureResult.getThird();
-        if (v < 35) {
-            v = (byte) ((chainId.byteValue() * 2) + (v + 35));
-        }
-
-        Sign.SignatureData signatureData = new Sign.SignatureData(v,
-                signatureResult.getSecond().toByteArray(),
-                signatureResult.getFirst().toByteArray());
+    private String signEncodedTransaction(byte[] unsignedTransaction, long chainId) throws TSSClientError, CustomSigningError {
+        UnsignedTransaction transaction = UnsignedTransaction.decode(unsignedTransaction, chainId);
+        Triple<BigInteger, BigInteger, Byte> signatureResult = sign(transaction.signingHash());
 
-        byte[] signedTransaction = TransactionEncoder.encode(rawTransaction, signatureData);
+        int v = signatureResult.getThird();
+        int recoveryId = v >= 27 ? v - 27 : v;
+        byte[] signedTransaction = transaction.encodeSigned(recoveryId, signatureResult.getSecond(), signatureResult.getFirst());
 
         return Numeric.toHexString(signedTransaction);
     }
 
-    private Triple<BigInteger, BigInteger, Byte> sign(String hash) throws TSSClientError, CustomSigningError {
-        TSSClient client;
-        Map<String, String> coeffs;
-        Pair<TSSClient, Map<String, String>> clientCoeffsPair;
-
-        clientCoeffsPair = bootstrapTssClient(ethAccountParams);
-        client = clientCoeffsPair.first;
-        coeffs = clientCoeffsPair.second;
+    /**
+     * Writes the node averages of the account to the {@link #stateStore}, e.g. when the app moves to
+     * the background. They are also written in the background after signing, at most once a minute.
+     * Nothing is written before the account has signed or after {@link #destroy()}.
+     */
+    public void saveState() throws IOException {
+        AccountStateStore store = stateStore;
+        TssAccountContext current = context;
+        if (store != null && current != null) {
+            store.save(current, sessionPool.endpointSelector);
+            stateSavedAt = System.currentTimeMillis();
+        }
+    }
 
-        boolean connected = client.checkConnected();
-        if (!connected) {
-            throw new CustomSigningError("Unable to establish connection to TSS server");
+    private void persistState(TssAccountContext context) {
+        AccountStateStore store = stateStore;
+        if (store == null || System.currentTimeMillis() - stateSavedAt < STATE_SAVE_INTERVAL_MILLIS
+                || !savingState.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store.save(context, sessionPool.endpointSelector);
+                    stateSavedAt = System.currentTimeMillis();
+                } catch (IOException ignored) {
+                    // persisting is best effort, the next signature tries again
+                } finally {
+                    savingState.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // the executor was shut down
+            savingState.set(false);
         }
+    }
 
-        Precompute precompute;
-        precompute = client.precompute(coeffs, Arrays.asList(ethAccountParams.authSigs));
+    public void warmUpSessions(int count) throws TSSClientError, CustomSigningError {
+        sessionPool.warmUp(getContext(), count);
+    }
 
-        boolean ready = client.isReady();
-        if (!ready) {
-            throw new EthereumSignerError(EthereumSignerError.ErrorType.UNKNOWN_ERROR);
+    /**
+     * Drops buffered and pooled sessions, cached signatures and the stored state, and wipes the
+     * derived share held by this account.
+     */
+    public void destroy() {
+        if (precomputeBuffer != null) {
+            precomputeBuffer.invalidate();
         }
+        if (signatureCache != null) {
+            signatureCache.invalidate(evmAddress);
+        }
+        TssAccountContext current;
+        synchronized (contextLock) {
+            current = context;
+            context = null;
+        }
+        if (current != null) {
+            current.destroy();
+        }
+        // after the context is destroyed, so that a save still running cannot write the record again
+        if (stateStore != null) {
+            try {
+                stateStore.delete(ethAccountParams);
+            } catch (IOException ignored) {
+                // an undeletable record still expires
+            }
+        }
+        sessionPool.evict(ethAccountParams);
+        if (current != null && !current.params.equals(ethAccountParams)) {
+            sessionPool.evict(current.params);
+        }
+    }
 
-        Triple<BigInteger, BigInteger, Byte> signatureResult;
-        signatureResult = client.sign(hash, true, null, precompute, Arrays.asList(ethAccountParams.authSigs));
-
-        client.cleanup(ethAccountParams.authSigs);
+    public void setPrecomputeBuffer(@Nullable PrecomputeBuffer buffer) throws TSSClientError, CustomSigningError {
+        if (precomputeBuffer != null && precomputeBuffer != buffer) {
+            precomputeBuffer.invalidate();
+        }
+        precomputeBuffer = buffer;
+        if (buffer != null) {
+            buffer.refill(getContext(), sessionPool);
+        }
+    }
 
-        boolean verified = TSSHelpers.verifySignature(hash, signatureResult.getFirst(),
-                signatureResult.getSecond(), signatureResult.getThird(), Utils.convertToBytes(ethAccountParams.publicKey));
+    private Triple<BigInteger, BigInteger, Byte> sign(byte[] digest) throws TSSClientError, CustomSigningError {
+        // the TSS client takes the digest as Base64, so this is the only place it is encoded
+        return sign(Codec.encodeBase64(digest));
+    }
 
-        if (!verified) {
-            throw new EthereumSignerError(EthereumSignerError.ErrorType.UNKNOWN_ERROR);
+    private Triple<BigInteger, BigInteger, Byte> sign(String hash) throws TSSClientError, CustomSigningError {
+        SigningTask task = SigningTask.current();
+        if (task != null && task.hasPermit()) {
+            // an asynchronous call waited for its slot before it took a thread
+            return signWithSession(hash);
+        }
+        SigningScheduler.Permit permit = timed(SigningStage.QUEUE, null, () -> scheduler.acquire(evmAddress));
+        try {
+            return signWithSession(hash);
+        } finally {
+            permit.close();
         }
-
-        return signatureResult;
     }
 
-    private Pair<TSSClient, Map<String, String>> bootstrapTssClient(EthTssAccountParams params) throws CustomSigningError, TSSClientError {
-        if (params.publicKey.length() < 128 || params.publicKey.length() > 130) {
-            throw new CustomSigningError("Public Key should be in uncompressed format");
+    private Triple<BigInteger, BigInteger, Byte> signWithSession(String hash) throws TSSClientError, CustomSigningError {
+        TssAccountContext context = getContext();
+        TssSession bufferedSession = precomputeBuffer != null ? precomputeBuffer.take(context, sessionPool) : null;
+        if (bufferedSession != null) {
+            attach(bufferedSession);
         }
+        TssSession session = bufferedSession != null ? bufferedSession : prepareSession(context);
+        try {
+            boolean ready = session.isReady();
+            if (!ready) {
+                throw new EthereumSignerError(EthereumSignerError.ErrorType.UNKNOWN_ERROR);
+            }
 
-        BigInteger randomKey = new BigInteger(1, Secp256k1.GenerateECKey());
-        BigInteger random = randomKey.add(BigInteger.valueOf(System.currentTimeMillis() / 1000));
-        String sessionNonce = TSSHelpers.base64ToBase64url(TSSHelpers.hashMessage(Arrays.toString(random.toByteArray())));
-        String session = TSSHelpers.assembleFullSession(params.verifier, params.verifierID,
-                params.selectedTag, String.valueOf(params.tssNonce), sessionNonce);
+            Triple<BigInteger, BigInteger, Byte> signatureResult;
+            try {
+                signatureResult = timed(SigningStage.SIGN, session, () -> session.sign(hash));
+            } catch (Throwable e) {
+                checkCancelled();
+                sessionPool.endpointSelector.recordFailure(session.endpoints);
+                throw e;
+            }
 
-        BigInteger userTssIndex = new BigInteger(params.tssIndex, 16);
-        int parties = 4;
-        int clientIndex = parties - 1;
+            timed(SigningStage.VERIFY, session, () -> {
+                boolean verified = TSSHelpers.verifySignature(hash, signatureResult.getFirst(),
+                        signatureResult.getSecond(), signatureResult.getThird(), session.context.verificationKey);
+
+                if (!verified) {
+                    throw new EthereumSignerError(EthereumSignerError.ErrorType.UNKNOWN_ERROR);
+                }
+                return null;
+            });
+
+            persistState(context);
+            return signatureResult;
+        } finally {
+            long start = System.nanoTime();
+            closeSession(session);
+            report(SigningStage.CLEANUP, session, start, null);
+        }
+    }
 
-        EndpointsData endpointsData = generateEndpoints(parties, clientIndex, Arrays.asList(params.tssEndpoints));
-        List<String> endpoints = endpointsData.getEndpoints();
-        List<String> socketUrls = endpointsData.getTssWSEndpoints();
-        List<Integer> partyIndexes = endpointsData.getPartyIndexes();
-        List<BigInteger> nodeInd = new ArrayList<>();
-        nodeInd.add(new BigInteger("1"));
-        nodeInd.add(new BigInteger("2"));
-        nodeInd.add(new BigInteger("3"));
+    /**
+     * Bootstraps and precomputes a session on the best node subset, moving on to the next best
+     * subset when the nodes cannot be reached or the precompute fails.
+     */
+    private TssSession prepareSession(TssAccountContext context) throws TSSClientError, CustomSigningError {
+        EndpointSelector selector = sessionPool.endpointSelector;
+        List<List<BigInteger>> failedNodes = new ArrayList<>();
+        for (int attempt = 1; ; attempt++) {
+            TssSession session = timed(SigningStage.BOOTSTRAP, null, () -> sessionPool.acquire(context, failedNodes));
+            attach(session);
+            try {
+                long start = System.nanoTime();
+                timed(SigningStage.CHECK_CONNECTED, session, () -> {
+                    boolean connected = session.checkConnected();
+                    if (!connected) {
+                        throw new CustomSigningError("Unable to establish connection to TSS server");
+                    }
+                    return null;
+                });
+                selector.recordSuccess(session.endpoints, System.nanoTime() - start);
+
+                timed(SigningStage.PRECOMPUTE, session, () -> {
+                    session.precompute();
+                    return null;
+                });
+                return session;
+            } catch (Throwable e) {
+                closeSession(session);
+                checkCancelled();
+                selector.recordFailure(session.endpoints);
+                if (attempt >= selector.maxAttempts || failedNodes.contains(session.nodes.nodeIndexes)) {
+                    throw e;
+                }
+                failedNodes.add(session.nodes.nodeIndexes);
+            }
+        }
+    }
 
-        Map<String, String> coeffs = TSSHelpers.getServerCoefficients(nodeInd.toArray(new BigInteger[0]), userTssIndex);
+    /**
+     * Lets a cancelled {@link SigningTask} clean up the session while it is in use.
+     */
+    private static void attach(TssSession session) {
+        SigningTask task = SigningTask.current();
+        if (task != null && !task.attach(session)) {
+            session.close();
+            throw new EthereumSignerError(EthereumSignerError.ErrorType.SIGNING_CANCELLED);
+        }
+    }
 
-        BigInteger share = new BigInteger(params.tssShare, 16);
-        BigInteger denormalizeShare = TSSHelpers.denormalizeShare(nodeInd.toArray(new BigInteger[0]), userTssIndex, share);
+    private static void closeSession(TssSession session) {
+        SigningTask task = SigningTask.current();
+        if (task == null || task.detach(session)) {
+            session.close();
+        }
+    }
 
-        TSSClient client = new TSSClient(session, clientIndex, partyIndexes.stream().mapToInt(Integer::intValue).toArray(),
-                endpoints.toArray(new String[0]), socketUrls.toArray(new String[0]), TSSHelpers.base64Share(denormalizeShare),
-                TSSHelpers.base64PublicKey(hexStringToByteArray(params.publicKey)));
+    /**
+     * Turns the failure of a session that was cleaned up under the signature into a cancellation,
+     * so that it is neither retried nor held against the nodes.
+     */
+    private static void checkCancelled() {
+        SigningTask task = SigningTask.current();
+        if (task != null && task.isCancelled()) {
+            throw new EthereumSignerError(EthereumSignerError.ErrorType.SIGNING_CANCELLED);
+        }
+    }
 
-        return new Pair<>(client, coeffs);
+    /**
+     * Returns the derived material for the current {@link #ethAccountParams}, recomputing it only
+     * when they were replaced. The material of replaced parameters is wiped along with their idle sessions.
+     */
+    private TssAccountContext getContext() throws TSSClientError, CustomSigningError {
+        TssAccountContext current = context;
+        if (current != null && current.params == ethAccountParams) {
+            return current;
+        }
+        TssAccountContext replaced;
+        synchronized (contextLock) {
+            current = context;
+            EthTssAccountParams params = ethAccountParams;
+            if (current != null && current.params == params) {
+                return current;
+            }
+            replaced = current;
+            AccountStateStore store = stateStore;
+            if (store != null) {
+                store.restore(params, sessionPool.endpointSelector);
+            }
+            current = new TssAccountContext(params);
+            context = current;
+        }
+        if (replaced != null) {
+            replaced.destroy();
+            if (!replaced.params.equals(current.params)) {
+                sessionPool.evict(replaced.params);
+            }
+        }
+        return current;
     }
 
+    private <T> T timed(SigningStage stage, @Nullable TssSession session, StageCall<T> call) throws TSSClientError, CustomSigningError {
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            report(stage, session, start, null);
+            return result;
+        } catch (Throwable e) {
+            report(stage, session, start, e);
+            throw e;
+        }
+    }
 
-    private EndpointsData generateEndpoints(int parties, int clientIndex, List<String> tssEndpoints) {
-        List<String> endpoints = new ArrayList<>();
-        List<String> tssWSEndpoints = new ArrayList<>();
-        List<Integer> partyIndexes = new ArrayList<>();
+    private <T> CompletableFuture<T> timed(SigningStage stage, CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        return future.whenComplete((result, error) -> report(stage, null, start, error));
+    }
 
-        for (int i = 0; i < parties; ++i) {
-            partyIndexes.add(i);
-            if (i == clientIndex) {
-                endpoints.add(null);
-                tssWSEndpoints.add(null);
-            } else {
-                endpoints.add(tssEndpoints.get(i));
-                tssWSEndpoints.add(tssEndpoints.get(i).replace("/tss", ""));
-            }
+    private void report(SigningStage stage, @Nullable TssSession session, long startNanos, @Nullable Throwable error) {
+        SigningListener listener = signingListener;
+        if (listener == SigningListener.NONE) {
+            return;
         }
+        long duration = System.nanoTime() - startNanos;
+        try {
+            listener.onStageCompleted(stage, evmAddress,
+                    session != null ? session.endpoints : Collections.emptyList(), duration, error);
+        } catch (RuntimeException ignored) {
+            // a faulty listener must not fail the signature
+        }
+    }
+
+    private interface StageCall<T> {
+        T call() throws TSSClientError, CustomSigningError;
+    }
+
+    private interface TransactionFactory {
+        RawTransaction create(BigInteger chainId, BigInteger nonce, FeeSuggestion fees);
+    }
 
-        return new EndpointsData(endpoints, tssWSEndpoints, partyIndexes);
+    private interface BatchItemSigner<T> {
+        String sign(T item) throws Exception;
     }
 }
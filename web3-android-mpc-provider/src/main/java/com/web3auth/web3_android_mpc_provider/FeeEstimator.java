@@ -0,0 +1,13 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import org.web3j.protocol.Web3j;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Suggests EIP-1559 fees for the chain behind a Web3j instance. Implementations are expected to
+ * answer from memory where possible, as the suggestion is awaited on the transaction signing path.
+ */
+public interface FeeEstimator {
+    CompletableFuture<FeeSuggestion> suggest(Web3j web3j);
+}
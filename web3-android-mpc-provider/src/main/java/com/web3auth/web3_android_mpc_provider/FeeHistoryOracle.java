@@ -0,0 +1,201 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthFeeHistory;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a fee suggestion per Web3j instance, i.e. per RPC endpoint and therefore per chain, derived
+ * from {@code eth_feeHistory}: the base fee of the pending block and the median of the recent
+ * priority fees paid at {@code rewardPercentile}. A chain is refreshed in the background from its
+ * first suggestion on, until no suggestion was asked for during {@code idleTimeoutMillis}.
+ * Suggestions older than {@code maxAgeMillis} are not served; the caller waits for a fresh one
+ * instead. Endpoints without {@code eth_feeHistory} are served {@code eth_gasPrice} as base fee.
+ */
+public class FeeHistoryOracle implements FeeEstimator {
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 12_000;
+    public static final long DEFAULT_MAX_AGE_MILLIS = 60_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 300_000;
+    public static final int DEFAULT_BLOCK_COUNT = 10;
+    public static final double DEFAULT_REWARD_PERCENTILE = 50;
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "fee-oracle-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private static final FeeHistoryOracle DEFAULT_ORACLE = new FeeHistoryOracle();
+
+    private final long refreshIntervalMillis;
+    private final long maxAgeMillis;
+    private final long idleTimeoutMillis;
+    private final int blockCount;
+    private final double rewardPercentile;
+    private final Map<Web3j, ChainFees> chains = new ConcurrentHashMap<>();
+
+    public FeeHistoryOracle() {
+        this(DEFAULT_REFRESH_INTERVAL_MILLIS, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    public FeeHistoryOracle(long refreshIntervalMillis, long maxAgeMillis) {
+        this(refreshIntervalMillis, maxAgeMillis, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_BLOCK_COUNT, DEFAULT_REWARD_PERCENTILE);
+    }
+
+    public FeeHistoryOracle(long refreshIntervalMillis, long maxAgeMillis, long idleTimeoutMillis, int blockCount, double rewardPercentile) {
+        if (refreshIntervalMillis <= 0 || maxAgeMillis < 0 || idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Refresh interval and idle timeout must be positive");
+        }
+        if (blockCount < 1 || rewardPercentile < 0 || rewardPercentile > 100) {
+            throw new IllegalArgumentException("Fee history needs at least one block and a percentile between 0 and 100");
+        }
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.maxAgeMillis = maxAgeMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.blockCount = blockCount;
+        this.rewardPercentile = rewardPercentile;
+    }
+
+    public static FeeHistoryOracle getDefault() {
+        return DEFAULT_ORACLE;
+    }
+
+    @Override
+    public CompletableFuture<FeeSuggestion> suggest(Web3j web3j) {
+        return chains.computeIfAbsent(web3j, this::track).suggest();
+    }
+
+    /**
+     * Fetches a new suggestion for the chain now, regardless of the age of the cached one.
+     */
+    public CompletableFuture<FeeSuggestion> refresh(Web3j web3j) {
+        return chains.computeIfAbsent(web3j, this::track).refresh();
+    }
+
+    /**
+     * Stops refreshing the chain in the background and drops its cached suggestion.
+     */
+    public void stop(Web3j web3j) {
+        ChainFees chain = chains.remove(web3j);
+        if (chain != null) {
+            chain.schedule.cancel(false);
+        }
+    }
+
+    private ChainFees track(Web3j web3j) {
+        ChainFees chain = new ChainFees(web3j);
+        chain.schedule = TIMER.scheduleWithFixedDelay(chain::tick, refreshIntervalMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+        return chain;
+    }
+
+    private CompletableFuture<FeeSuggestion> fetch(Web3j web3j) {
+        return web3j.ethFeeHistory(blockCount, DefaultBlockParameterName.LATEST, Collections.singletonList(rewardPercentile))
+                .sendAsync().thenCompose(response -> {
+                    EthFeeHistory.FeeHistory history = response.hasError() ? null : response.getFeeHistory();
+                    if (history == null || history.getBaseFeePerGasRaw() == null || history.getBaseFeePerGasRaw().isEmpty()) {
+                        // not a London chain, or the endpoint does not serve fee history
+                        return web3j.ethGasPrice().sendAsync().thenApply(gasPrice ->
+                                new FeeSuggestion(result(gasPrice).getGasPrice(), BigInteger.ZERO, System.currentTimeMillis()));
+                    }
+                    List<BigInteger> baseFees = history.getBaseFeePerGas();
+                    // the last entry is the base fee of the block after the newest one in the history
+                    BigInteger baseFee = baseFees.get(baseFees.size() - 1);
+                    return CompletableFuture.completedFuture(new FeeSuggestion(baseFee, medianReward(history), System.currentTimeMillis()));
+                });
+    }
+
+    private static BigInteger medianReward(EthFeeHistory.FeeHistory history) {
+        if (history.getRewardRaw() == null) {
+            return BigInteger.ZERO;
+        }
+        List<BigInteger> rewards = new ArrayList<>();
+        for (List<BigInteger> blockRewards : history.getReward()) {
+            if (!blockRewards.isEmpty()) {
+                rewards.add(blockRewards.get(0));
+            }
+        }
+        if (rewards.isEmpty()) {
+            return BigInteger.ZERO;
+        }
+        Collections.sort(rewards);
+        return rewards.get(rewards.size() / 2);
+    }
+
+    private static <T extends Response<?>> T result(T response) {
+        if (response.hasError()) {
+            throw new CompletionException(new IOException(response.getError().getMessage()));
+        }
+        return response;
+    }
+
+    private final class ChainFees {
+        final Web3j web3j;
+        FeeSuggestion latest;
+        CompletableFuture<FeeSuggestion> pending;
+        long lastUsedMillis = System.currentTimeMillis();
+        volatile ScheduledFuture<?> schedule;
+
+        ChainFees(Web3j web3j) {
+            this.web3j = web3j;
+        }
+
+        CompletableFuture<FeeSuggestion> suggest() {
+            synchronized (this) {
+                lastUsedMillis = System.currentTimeMillis();
+                if (latest != null && latest.ageMillis() <= maxAgeMillis) {
+                    return CompletableFuture.completedFuture(latest);
+                }
+            }
+            return refresh();
+        }
+
+        synchronized CompletableFuture<FeeSuggestion> refresh() {
+            if (pending != null) {
+                return pending;
+            }
+            CompletableFuture<FeeSuggestion> fetch = fetch(web3j);
+            pending = fetch;
+            fetch.whenComplete((suggestion, error) -> {
+                synchronized (this) {
+                    if (pending == fetch) {
+                        pending = null;
+                    }
+                    if (error == null) {
+                        latest = suggestion;
+                    }
+                }
+            });
+            return fetch;
+        }
+
+        void tick() {
+            synchronized (this) {
+                if (System.currentTimeMillis() - lastUsedMillis > idleTimeoutMillis) {
+                    schedule.cancel(false);
+                    chains.remove(web3j, this);
+                    return;
+                }
+            }
+            // a failed refresh keeps the previous suggestion until it is too old to be served
+            refresh();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import java.math.BigInteger;
+
+public final class FeeSuggestion {
+    public final BigInteger baseFeePerGas;
+    public final BigInteger maxPriorityFeePerGas;
+    public final long timestampMillis;
+
+    public FeeSuggestion(BigInteger baseFeePerGas, BigInteger maxPriorityFeePerGas, long timestampMillis) {
+        this.baseFeePerGas = baseFeePerGas;
+        this.maxPriorityFeePerGas = maxPriorityFeePerGas;
+        this.timestampMillis = timestampMillis;
+    }
+
+    /**
+     * Returns a fee cap that stays includable for several blocks of rising base fees, i.e. twice
+     * the base fee plus the given tip.
+     */
+    public BigInteger maxFeePerGas(BigInteger maxPriorityFeePerGas) {
+        return baseFeePerGas.shiftLeft(1).add(maxPriorityFeePerGas);
+    }
+
+    public BigInteger maxFeePerGas() {
+        return maxFeePerGas(maxPriorityFeePerGas);
+    }
+
+    /**
+     * Returns a gas price for legacy transactions, the base fee plus the suggested tip.
+     */
+    public BigInteger gasPrice() {
+        return baseFeePerGas.add(maxPriorityFeePerGas);
+    }
+
+    public long ageMillis() {
+        return System.currentTimeMillis() - timestampMillis;
+    }
+}
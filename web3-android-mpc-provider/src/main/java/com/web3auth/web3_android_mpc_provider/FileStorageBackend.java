@@ -0,0 +1,58 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Keeps every record in its own file of a directory, e.g. {@code Context.getNoBackupFilesDir()} on
+ * Android. Writes go to a temporary file that is synced and then renamed over the record.
+ */
+public class FileStorageBackend implements StorageBackend {
+    private final File directory;
+
+    public FileStorageBackend(File directory) {
+        this.directory = directory;
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] read(String name) throws IOException {
+        File file = new File(directory, name);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            byte[] data = new byte[(int) input.length()];
+            input.readFully(data);
+            return data;
+        }
+    }
+
+    @Override
+    public synchronized void write(String name, byte[] data) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        File temp = new File(directory, name + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            output.write(data);
+            output.getFD().sync();
+        }
+        if (!temp.renameTo(new File(directory, name))) {
+            temp.delete();
+            throw new IOException("Unable to replace " + name);
+        }
+    }
+
+    @Override
+    public synchronized void delete(String name) throws IOException {
+        File file = new File(directory, name);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Unable to delete " + name);
+        }
+    }
+}
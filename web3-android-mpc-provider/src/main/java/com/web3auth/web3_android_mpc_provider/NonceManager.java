@@ -0,0 +1,183 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out transaction nonces for one address locally, so that transactions can be signed back to back
+ * without waiting for the previous one to be mined. Nonces are tracked per chain id, so that every Web3j
+ * instance for a chain shares one counter, and are seeded from the pending transaction count.
+ * <p>
+ * A nonce handed out is assumed to be broadcast. Callers that sign without broadcasting have to
+ * {@link #release(long, BigInteger)} the nonce, or later transactions wait behind the gap. Numbering
+ * is seeded from the pending count again after a release and when the chain was not used within the
+ * idle timeout, which also closes gaps left by nonces that were neither broadcast nor released.
+ * Nonces handed out within the last minute are skipped after such a resync, as their transactions
+ * may not have reached the node yet.
+ */
+public class NonceManager {
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final long BROADCAST_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Map<String, NonceManager> MANAGERS = new ConcurrentHashMap<>();
+
+    private final String address;
+    private final Map<Long, NonceState> states = new HashMap<>();
+    long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    long broadcastWindowMillis = BROADCAST_WINDOW_MILLIS;
+
+    private NonceManager(String address) {
+        this.address = address;
+    }
+
+    public static NonceManager forAddress(String address) {
+        return MANAGERS.computeIfAbsent(address.toLowerCase(Locale.ROOT), NonceManager::new);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the next nonce to use. The pending count is read from the node first when the chain
+     * was idle or a nonce was released since the last read.
+     */
+    public CompletableFuture<BigInteger> acquire(Web3j web3j, long chainId) {
+        NonceState state;
+        CompletableFuture<BigInteger> sync;
+        synchronized (this) {
+            state = getState(chainId);
+            if (state.stale && state.sync == null) {
+                state.stale = false;
+                state.next = null;
+                fetchPendingCount(web3j, state);
+            }
+            if (state.next != null) {
+                return CompletableFuture.completedFuture(state.take());
+            }
+            sync = state.sync != null ? state.sync : fetchPendingCount(web3j, state);
+        }
+        return sync.thenCompose(count -> {
+            synchronized (this) {
+                if (state.next != null) {
+                    return CompletableFuture.completedFuture(state.take());
+                }
+            }
+            // a resync was started while this call was waiting
+            return acquire(web3j, chainId);
+        });
+    }
+
+    /**
+     * Gives back a nonce that was acquired but never broadcast. The next acquire reads the pending
+     * count from the node, so numbering continues from the lowest nonce that was not broadcast.
+     */
+    public synchronized void release(long chainId, BigInteger nonce) {
+        NonceState state = states.get(chainId);
+        if (state == null) {
+            return;
+        }
+        state.handedOut.remove(nonce);
+        state.stale = true;
+    }
+
+    /**
+     * Re-reads the pending transaction count from the node and restarts local numbering from it,
+     * e.g. after transactions were dropped or sent from elsewhere.
+     */
+    public CompletableFuture<BigInteger> resync(Web3j web3j, long chainId) {
+        synchronized (this) {
+            NonceState state = getState(chainId);
+            state.stale = false;
+            state.next = null;
+            return fetchPendingCount(web3j, state);
+        }
+    }
+
+    public synchronized void reset(long chainId) {
+        states.remove(chainId);
+    }
+
+    private NonceState getState(long chainId) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Long, NonceState>> entries = states.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, NonceState> entry = entries.next();
+            NonceState idle = entry.getValue();
+            // transactions sent meanwhile are in the pending count, so numbering restarts from the node
+            if (idle.sync == null && now - idle.lastUsed > idleTimeoutMillis) {
+                entries.remove();
+            }
+        }
+        NonceState state = states.get(chainId);
+        if (state == null) {
+            state = new NonceState();
+            states.put(chainId, state);
+        }
+        state.lastUsed = now;
+        state.pruneHandedOut(now - broadcastWindowMillis);
+        return state;
+    }
+
+    private CompletableFuture<BigInteger> fetchPendingCount(Web3j web3j, NonceState state) {
+        // a resync replaces the sync in progress, whose result is then ignored
+        CompletableFuture<BigInteger> sync = new CompletableFuture<>();
+        state.sync = sync;
+        web3j.ethGetTransactionCount(address, DefaultBlockParameterName.PENDING)
+                .sendAsync().thenApply(EthGetTransactionCount::getTransactionCount)
+                .whenComplete((count, error) -> {
+                    synchronized (this) {
+                        if (state.sync == sync) {
+                            state.sync = null;
+                            if (error == null) {
+                                state.next = count;
+                            }
+                        }
+                    }
+                    if (error != null) {
+                        sync.completeExceptionally(error);
+                    } else {
+                        sync.complete(count);
+                    }
+                });
+        return sync;
+    }
+
+    private static final class NonceState {
+        BigInteger next;
+        // nonces handed out within the broadcast window, oldest first, with the time they were handed out
+        final Map<BigInteger, Long> handedOut = new LinkedHashMap<>();
+        boolean stale;
+        CompletableFuture<BigInteger> sync;
+        long lastUsed;
+
+        BigInteger take() {
+            while (handedOut.containsKey(next)) {
+                next = next.add(BigInteger.ONE);
+            }
+            BigInteger nonce = next;
+            next = next.add(BigInteger.ONE);
+            handedOut.put(nonce, lastUsed);
+            return nonce;
+        }
+
+        void pruneHandedOut(long cutoff) {
+            Iterator<Long> times = handedOut.values().iterator();
+            while (times.hasNext() && times.next() < cutoff) {
+                times.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds a bounded number of sessions whose offline precompute phase has already run, so that
+ * signing only needs the online round. Sessions are filled on a background executor from the
+ * session pool of the account using the buffer, so that they are created by its session factory on
+ * the node subsets its endpoint selector picks. They are dropped when they expire or when the
+ * account parameters (tss nonce, auth signatures, ...) change.
+ */
+public class PrecomputeBuffer {
+    public static final int DEFAULT_CAPACITY = 2;
+    public static final int DEFAULT_REFILL_THRESHOLD = 1;
+    public static final long DEFAULT_MAX_AGE_MILLIS = 60_000;
+
+    private final int capacity;
+    private final int refillThreshold;
+    private final long maxAgeMillis;
+    private final Executor executor;
+    private final ArrayDeque<TssSession> ready = new ArrayDeque<>();
+    private EthTssAccountParams params;
+    private int inFlight;
+    private boolean shutdown;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public PrecomputeBuffer() {
+        this(DEFAULT_CAPACITY, DEFAULT_REFILL_THRESHOLD, DEFAULT_MAX_AGE_MILLIS,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "precompute-buffer-refill");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    public PrecomputeBuffer(int capacity, int refillThreshold, long maxAgeMillis, Executor executor) {
+        if (capacity < 1 || refillThreshold < 0 || refillThreshold >= capacity || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Invalid precompute buffer limits");
+        }
+        this.capacity = capacity;
+        this.refillThreshold = refillThreshold;
+        this.maxAgeMillis = maxAgeMillis;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a precomputed session for the account or {@code null} when none is ready,
+     * scheduling a refill from the pool whenever the buffer runs low.
+     */
+    TssSession take(TssAccountContext context, TssSessionPool sessionPool) {
+        EthTssAccountParams params = context.params;
+        List<TssSession> stale = new ArrayList<>();
+        TssSession session = null;
+        synchronized (this) {
+            stale.addAll(resetIfChanged(params));
+            long cutoff = System.currentTimeMillis() - maxAgeMillis;
+            TssSession candidate;
+            while ((candidate = ready.pollFirst()) != null) {
+                if (candidate.precomputedAt >= cutoff) {
+                    session = candidate;
+                    break;
+                }
+                expired.incrementAndGet();
+                stale.add(candidate);
+            }
+        }
+        closeAll(stale);
+        if (session != null && !session.isReady()) {
+            session.close();
+            session = null;
+        }
+        if (session != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        refill(context, sessionPool, false);
+        return session;
+    }
+
+    /**
+     * Fills the buffer for the account up to its capacity from the pool in the background.
+     */
+    void refill(TssAccountContext context, TssSessionPool sessionPool) {
+        refill(context, sessionPool, true);
+    }
+
+    private void refill(TssAccountContext context, TssSessionPool sessionPool, boolean force) {
+        EthTssAccountParams params = context.params;
+        List<TssSession> stale;
+        int toSchedule;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            stale = resetIfChanged(params);
+            int available = ready.size() + inFlight;
+            toSchedule = force || available <= refillThreshold ? capacity - available : 0;
+            inFlight += Math.max(toSchedule, 0);
+        }
+        closeAll(stale);
+        for (int i = 0; i < toSchedule; i++) {
+            try {
+                executor.execute(() -> fill(context, sessionPool));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    inFlight -= toSchedule - i;
+                }
+                return;
+            }
+        }
+    }
+
+    private void fill(TssAccountContext context, TssSessionPool sessionPool) {
+        EthTssAccountParams params = context.params;
+        TssSession session = null;
+        try {
+            session = sessionPool.acquire(context, Collections.emptyList());
+            long start = System.nanoTime();
+            if (!session.checkConnected()) {
+                throw new CustomSigningError("Unable to establish connection to TSS server");
+            }
+            sessionPool.endpointSelector.recordSuccess(session.endpoints, System.nanoTime() - start);
+            session.precompute();
+        } catch (Throwable e) {
+            // also EthereumSignerError, which is an Error; inFlight must be decremented either way
+            failures.incrementAndGet();
+            if (session != null) {
+                sessionPool.endpointSelector.recordFailure(session.endpoints);
+                session.close();
+            }
+            session = null;
+        }
+        boolean accepted = false;
+        synchronized (this) {
+            inFlight--;
+            if (session != null && !shutdown && params.equals(this.params) && ready.size() < capacity) {
+                ready.addLast(session);
+                accepted = true;
+            }
+        }
+        if (session != null && !accepted) {
+            session.close();
+        }
+    }
+
+    /**
+     * Drops every buffered session, e.g. after the auth signatures were refreshed.
+     */
+    public void invalidate() {
+        List<TssSession> stale;
+        synchronized (this) {
+            stale = new ArrayList<>(ready);
+            ready.clear();
+            params = null;
+        }
+        closeAll(stale);
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+        }
+        invalidate();
+    }
+
+    public synchronized int size() {
+        return ready.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    private List<TssSession> resetIfChanged(EthTssAccountParams params) {
+        List<TssSession> stale = new ArrayList<>();
+        if (!params.equals(this.params)) {
+            stale.addAll(ready);
+            ready.clear();
+            this.params = params;
+        }
+        return stale;
+    }
+
+    private static void closeAll(List<TssSession> sessions) {
+        for (TssSession session : sessions) {
+            session.close();
+        }
+    }
+}
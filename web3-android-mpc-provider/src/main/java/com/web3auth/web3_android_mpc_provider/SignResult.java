@@ -0,0 +1,37 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+public final class SignResult {
+    @Nullable
+    private final String signature;
+    @Nullable
+    private final Throwable error;
+
+    private SignResult(@Nullable String signature, @Nullable Throwable error) {
+        this.signature = signature;
+        this.error = error;
+    }
+
+    static SignResult success(String signature) {
+        return new SignResult(signature, null);
+    }
+
+    static SignResult failure(Throwable error) {
+        return new SignResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Nullable
+    public String getSignature() {
+        return signature;
+    }
+
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+}
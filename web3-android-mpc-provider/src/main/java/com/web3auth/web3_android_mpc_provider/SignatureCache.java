@@ -0,0 +1,150 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of verified signatures keyed by account and digest, so that signing the same
+ * message or typed data again within the time to live does not run the TSS protocol a second time.
+ * Only the payload types passed to the constructor are cached; transactions never are.
+ */
+public class SignatureCache {
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    public static final long DEFAULT_TTL_MILLIS = 60_000;
+
+    public enum PayloadType {
+        MESSAGE,
+        TYPED_DATA
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Set<PayloadType> payloadTypes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SignatureCache(PayloadType... payloadTypes) {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, payloadTypes);
+    }
+
+    public SignatureCache(int maxEntries, long ttlMillis, PayloadType... payloadTypes) {
+        if (maxEntries < 1 || ttlMillis <= 0 || payloadTypes.length == 0) {
+            throw new IllegalArgumentException("Invalid signature cache limits");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.payloadTypes = EnumSet.copyOf(Arrays.asList(payloadTypes));
+    }
+
+    public boolean isEnabled(PayloadType type) {
+        return payloadTypes.contains(type);
+    }
+
+    /**
+     * Returns the cached signature of the digest for the account or {@code null} when there is
+     * none or it has expired.
+     */
+    @Nullable
+    String get(String account, String hash) {
+        Key key = new Key(account, hash);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return entry.signature;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    synchronized void put(String account, String hash, String signature) {
+        entries.put(new Key(account, hash), new Entry(signature, System.currentTimeMillis() + ttlMillis));
+        if (entries.size() > maxEntries) {
+            evictExpired();
+            Iterator<Key> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops every signature cached for the account, e.g. after it was logged out.
+     */
+    public synchronized void invalidate(String account) {
+        entries.keySet().removeIf(key -> key.account.equals(account));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Key {
+        final String account;
+        final String hash;
+
+        Key(String account, String hash) {
+            this.account = account;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return account.equals(key.account) && hash.equals(key.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * account.hashCode() + hash.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        final String signature;
+        final long expiresAt;
+
+        Entry(String signature, long expiresAt) {
+            this.signature = signature;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
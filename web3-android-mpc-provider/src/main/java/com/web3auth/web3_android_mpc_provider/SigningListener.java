@@ -0,0 +1,23 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Receives the duration and outcome of every stage of a signature, e.g. to feed metrics or tracing.
+ * Callbacks run on the signing thread and should return quickly.
+ */
+public interface SigningListener {
+    SigningListener NONE = (stage, account, endpoints, durationNanos, error) -> {
+    };
+
+    /**
+     * @param stage         the stage that finished
+     * @param account       the EVM address of the signing account
+     * @param endpoints     the TSS node endpoints taking part in the stage, empty for RPC stages
+     * @param durationNanos the wall clock time the stage took
+     * @param error         the failure of the stage, or {@code null} when it succeeded
+     */
+    void onStageCompleted(SigningStage stage, String account, List<String> endpoints, long durationNanos, @Nullable Throwable error);
+}
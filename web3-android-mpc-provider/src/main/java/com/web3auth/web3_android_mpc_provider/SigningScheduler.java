@@ -0,0 +1,215 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how many signatures run against the TSS nodes at once, in total and per account.
+ * Signatures over the limit wait in a FIFO queue; a waiter held back only by its own account's
+ * limit does not hold up waiters of other accounts. Signing fails with a typed
+ * {@link EthereumSignerError} when the queue is full, when the queue timeout passes before a slot
+ * frees up, or when the waiting thread is interrupted.
+ */
+public class SigningScheduler {
+    public static final int DEFAULT_MAX_CONCURRENT = 16;
+    public static final int DEFAULT_MAX_CONCURRENT_PER_ACCOUNT = 4;
+    public static final int DEFAULT_MAX_QUEUED = 256;
+    public static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 30_000;
+
+    private static final SigningScheduler DEFAULT_SCHEDULER = new SigningScheduler();
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "signing-scheduler-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final int maxConcurrent;
+    private final int maxConcurrentPerAccount;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private int runningCount;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public SigningScheduler() {
+        this(DEFAULT_MAX_CONCURRENT, DEFAULT_MAX_CONCURRENT_PER_ACCOUNT, DEFAULT_MAX_QUEUED, DEFAULT_QUEUE_TIMEOUT_MILLIS);
+    }
+
+    public SigningScheduler(int maxConcurrent, int maxConcurrentPerAccount, int maxQueued, long queueTimeoutMillis) {
+        if (maxConcurrent < 1 || maxConcurrentPerAccount < 1 || maxQueued < 0 || queueTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Invalid signing scheduler limits");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxConcurrentPerAccount = maxConcurrentPerAccount;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public static SigningScheduler getDefault() {
+        return DEFAULT_SCHEDULER;
+    }
+
+    /**
+     * Blocks until the account may start a signature. The returned permit must be closed once the
+     * TSS session has been cleaned up.
+     */
+    Permit acquire(String account) {
+        CompletableFuture<Permit> permit = acquireAsync(account);
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+                permit.join().close();
+            }
+            throw new EthereumSignerError(EthereumSignerError.ErrorType.SIGNING_CANCELLED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EthereumSignerError) {
+                throw (EthereumSignerError) e.getCause();
+            }
+            throw new EthereumSignerError(EthereumSignerError.ErrorType.UNKNOWN_ERROR);
+        }
+    }
+
+    /**
+     * Returns a future permit for the account. Cancelling the future removes the request from the queue.
+     */
+    CompletableFuture<Permit> acquireAsync(String account) {
+        Waiter waiter;
+        synchronized (this) {
+            if (canRun(account)) {
+                start(account);
+                return CompletableFuture.completedFuture(new Permit(account));
+            }
+            if (queue.size() >= maxQueued) {
+                rejected.incrementAndGet();
+                CompletableFuture<Permit> rejection = new CompletableFuture<>();
+                rejection.completeExceptionally(new EthereumSignerError(EthereumSignerError.ErrorType.SIGNING_QUEUE_FULL));
+                return rejection;
+            }
+            waiter = new Waiter(account);
+            queue.addLast(waiter);
+            waiter.timeout = TIMER.schedule(() -> expire(waiter), queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        waiter.permit.whenComplete((permit, error) -> {
+            waiter.timeout.cancel(false);
+            if (waiter.permit.isCancelled()) {
+                remove(waiter);
+            }
+        });
+        return waiter.permit;
+    }
+
+    public synchronized int getRunningCount() {
+        return runningCount;
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    private void release(String account) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            runningCount--;
+            int count = running.get(account) - 1;
+            if (count == 0) {
+                running.remove(account);
+            } else {
+                running.put(account, count);
+            }
+            Iterator<Waiter> waiters = queue.iterator();
+            while (runningCount < maxConcurrent && waiters.hasNext()) {
+                Waiter waiter = waiters.next();
+                if (canRun(waiter.account)) {
+                    waiters.remove();
+                    start(waiter.account);
+                    granted.add(waiter);
+                }
+            }
+        }
+        for (Waiter waiter : granted) {
+            if (!waiter.permit.complete(new Permit(waiter.account))) {
+                // cancelled while being granted, hand the slot to the next waiter
+                release(waiter.account);
+            }
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!queue.remove(waiter)) {
+                return;
+            }
+        }
+        timedOut.incrementAndGet();
+        waiter.permit.completeExceptionally(new EthereumSignerError(EthereumSignerError.ErrorType.SIGNING_TIMEOUT));
+    }
+
+    private synchronized void remove(Waiter waiter) {
+        queue.remove(waiter);
+    }
+
+    private boolean canRun(String account) {
+        Integer count = running.get(account);
+        return runningCount < maxConcurrent && (count == null || count < maxConcurrentPerAccount);
+    }
+
+    private void start(String account) {
+        runningCount++;
+        Integer count = running.get(account);
+        running.put(account, count == null ? 1 : count + 1);
+    }
+
+    final class Permit implements AutoCloseable {
+        private final String account;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String account) {
+            this.account = account;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(account);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final String account;
+        final CompletableFuture<Permit> permit = new CompletableFuture<>();
+        ScheduledFuture<?> timeout;
+
+        Waiter(String account) {
+            this.account = account;
+        }
+    }
+}
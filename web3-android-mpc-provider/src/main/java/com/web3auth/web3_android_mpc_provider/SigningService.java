@@ -0,0 +1,243 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import org.web3j.protocol.Web3j;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs signatures off the calling thread and delivers their results on a chosen thread, e.g. the
+ * main thread. Work is submitted through a {@link Scope}, typically one per activity or fragment:
+ * cancelling the scope, which {@link #bind(LifecycleOwner)} does when the host is destroyed,
+ * interrupts its signatures and cleans up their TSS sessions with the nodes. No callback of a
+ * cancelled scope is delivered, so a scope does not keep a destroyed host alive.
+ */
+public class SigningService {
+    public static final int DEFAULT_THREADS = 4;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+    private final Executor callbackExecutor;
+    private final Set<Scope> scopes = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Creates a service that delivers results on the main thread.
+     */
+    public SigningService() {
+        this(DEFAULT_THREADS, mainThreadExecutor());
+    }
+
+    /**
+     * @param threads          the number of signatures run at once; further ones wait for a thread
+     * @param callbackExecutor runs the callbacks and completes the returned futures
+     */
+    public SigningService(int threads, Executor callbackExecutor) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "mpc-signing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public static Executor mainThreadExecutor() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return runnable -> {
+            if (!handler.post(runnable)) {
+                throw new RejectedExecutionException("The main looper has quit");
+            }
+        };
+    }
+
+    /**
+     * Returns a scope the caller cancels once it no longer wants its results.
+     */
+    public Scope newScope() {
+        Scope scope = new Scope();
+        scopes.add(scope);
+        if (executor.isShutdown()) {
+            scope.cancel();
+        }
+        return scope;
+    }
+
+    /**
+     * Returns a scope that is cancelled when the owner is destroyed, including on a configuration
+     * change. Must be called on the main thread.
+     */
+    public Scope bind(LifecycleOwner owner) {
+        Scope scope = newScope();
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            scope.cancel();
+            return scope;
+        }
+        lifecycle.addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    scope.cancel();
+                }
+            }
+        });
+        return scope;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Cancels every scope and stops the signing threads once the cancelled sessions are cleaned up.
+     */
+    public void shutdown() {
+        for (Scope scope : new ArrayList<>(scopes)) {
+            scope.cancel();
+        }
+        executor.shutdown();
+    }
+
+    public interface Callback<T> {
+        void onSuccess(T result);
+
+        void onFailure(Throwable error);
+    }
+
+    /**
+     * A group of signatures that is cancelled together. Every method returns a future that is
+     * completed on the callback executor right before the callback, if any, is invoked; cancelling
+     * the future cancels the signature.
+     */
+    public final class Scope {
+        private final Set<CompletableFuture<?>> pending = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private volatile boolean cancelled;
+
+        private Scope() {
+        }
+
+        public CompletableFuture<String> signMessage(EthereumTssAccount account, String message, @Nullable Callback<? super String> callback) {
+            return submit(() -> account.signMessage(message), callback);
+        }
+
+        public CompletableFuture<String> signTypedData(EthereumTssAccount account, String jsonData, @Nullable Callback<? super String> callback) {
+            return submit(() -> account.signTypedData(jsonData), callback);
+        }
+
+        public CompletableFuture<String> signTransaction(EthereumTssAccount account, Web3j web3j, String toAddress, Double amount, Double minerTip, @Nullable String data, BigInteger gasLimit, @Nullable Callback<? super String> callback) {
+            return submit(() -> account.signTransaction(web3j, toAddress, amount, minerTip, data, gasLimit), callback);
+        }
+
+        public CompletableFuture<String> signLegacyTransaction(EthereumTssAccount account, Web3j web3j, String toAddress, Double amount, @Nullable String data, BigInteger gasLimit, @Nullable Callback<? super String> callback) {
+            return submit(() -> account.signLegacyTransaction(web3j, toAddress, amount, data, gasLimit), callback);
+        }
+
+        public CompletableFuture<String> signEncodedTransaction(EthereumTssAccount account, String unsignedTransaction, long chainId, @Nullable Callback<? super String> callback) {
+            return submit(() -> account.signEncodedTransaction(unsignedTransaction, chainId), callback);
+        }
+
+        /**
+         * Runs any other blocking account call on the signing threads.
+         */
+        public <T> CompletableFuture<T> submit(Callable<T> call, @Nullable Callback<? super T> callback) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            pending.add(result);
+            if (cancelled) {
+                result.cancel(false);
+            }
+            result.whenComplete((value, error) -> pending.remove(result));
+            if (result.isDone()) {
+                return result;
+            }
+
+            CompletableFuture<T> task;
+            try {
+                task = SigningTask.supplyAsync(call, executor);
+            } catch (RejectedExecutionException e) {
+                result.cancel(false);
+                return result;
+            }
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    task.cancel(false);
+                }
+            });
+            task.whenComplete((value, error) -> deliver(result, value, error, callback));
+            return result;
+        }
+
+        /**
+         * Cancels every signature of the scope and drops their callbacks. Signatures submitted
+         * afterwards are cancelled right away.
+         */
+        public void cancel() {
+            cancelled = true;
+            for (CompletableFuture<?> future : new ArrayList<>(pending)) {
+                future.cancel(false);
+            }
+            scopes.remove(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public int getPendingCount() {
+            return pending.size();
+        }
+
+        private <T> void deliver(CompletableFuture<T> result, @Nullable T value, @Nullable Throwable error, @Nullable Callback<? super T> callback) {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                callbackExecutor.execute(() -> {
+                    // checked on the callback thread, which is the thread a host cancels on
+                    if (cancelled) {
+                        result.cancel(false);
+                        return;
+                    }
+                    if (error == null) {
+                        if (result.complete(value) && callback != null) {
+                            callback.onSuccess(value);
+                        }
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        if (result.completeExceptionally(cause) && callback != null) {
+                            callback.onFailure(cause);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the callback thread is gone, e.g. its looper quit
+                result.cancel(false);
+            }
+        }
+    }
+}
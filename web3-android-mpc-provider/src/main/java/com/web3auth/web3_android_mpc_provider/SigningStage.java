@@ -0,0 +1,14 @@
+package com.web3auth.web3_android_mpc_provider;
+
+public enum SigningStage {
+    QUEUE,
+    BOOTSTRAP,
+    CHECK_CONNECTED,
+    PRECOMPUTE,
+    SIGN,
+    VERIFY,
+    CLEANUP,
+    RPC_CHAIN_ID,
+    RPC_NONCE,
+    RPC_GAS_PRICE
+}
@@ -0,0 +1,171 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The thread running an asynchronous signature and the TSS session it holds. Cancelling the task
+ * interrupts the thread, which abandons a wait for a {@link SigningScheduler} slot or an RPC call,
+ * and cleans up the session, so that the nodes stop working on a signature nobody waits for and
+ * its websockets are closed.
+ */
+final class SigningTask {
+    private static final ThreadLocal<SigningTask> CURRENT = new ThreadLocal<>();
+
+    private final Executor cleanupExecutor;
+    @Nullable
+    private final SigningScheduler.Permit permit;
+    private Thread worker;
+    private TssSession session;
+    private boolean cancelled;
+
+    private SigningTask(Executor cleanupExecutor, @Nullable SigningScheduler.Permit permit) {
+        this.cleanupExecutor = cleanupExecutor;
+        this.permit = permit;
+    }
+
+    /**
+     * Runs the call on the executor. Cancelling the returned future cancels the task.
+     */
+    static <T> CompletableFuture<T> supplyAsync(Callable<T> call, Executor executor) {
+        return supplyAsync(call, executor, null);
+    }
+
+    /**
+     * Runs the call on the executor with a scheduler slot acquired beforehand. The task owns the
+     * permit and closes it once the call returned, or right away when the task never runs.
+     */
+    static <T> CompletableFuture<T> supplyAsync(Callable<T> call, Executor executor, @Nullable SigningScheduler.Permit permit) {
+        SigningTask task = new SigningTask(executor, permit);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                task.cancel();
+            }
+        });
+        try {
+            executor.execute(() -> {
+                if (!task.start()) {
+                    task.closePermit();
+                    return;
+                }
+                CURRENT.set(task);
+                T result = null;
+                Throwable error = null;
+                try {
+                    result = call.call();
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    CURRENT.remove();
+                    task.finish();
+                    // the slot is free by the time the caller sees the result
+                    task.closePermit();
+                }
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            task.closePermit();
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Returns the task running on the current thread, or {@code null} for a synchronous call.
+     */
+    @Nullable
+    static SigningTask current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Hands the session to the task, so that cancelling cleans it up.
+     *
+     * @return {@code false} when the task was already cancelled; the caller still owns the session
+     */
+    synchronized boolean attach(TssSession session) {
+        if (cancelled) {
+            return false;
+        }
+        this.session = session;
+        return true;
+    }
+
+    /**
+     * Takes the session back from the task.
+     *
+     * @return {@code false} when cancelling already cleaned up the session
+     */
+    synchronized boolean detach(TssSession session) {
+        if (this.session == session) {
+            this.session = null;
+            return true;
+        }
+        return !cancelled;
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns whether the task already holds a scheduler slot for its signature.
+     */
+    boolean hasPermit() {
+        return permit != null;
+    }
+
+    void cancel() {
+        TssSession abandoned;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (worker != null) {
+                worker.interrupt();
+            }
+            abandoned = session;
+            session = null;
+        }
+        if (abandoned != null) {
+            // the cleanup calls the nodes, which must not happen on the thread cancelling, e.g. the main thread
+            try {
+                cleanupExecutor.execute(abandoned::close);
+            } catch (RejectedExecutionException e) {
+                new Thread(abandoned::close, "tss-session-cleanup").start();
+            }
+        }
+    }
+
+    private synchronized boolean start() {
+        if (cancelled) {
+            return false;
+        }
+        worker = Thread.currentThread();
+        return true;
+    }
+
+    private void closePermit() {
+        if (permit != null) {
+            permit.close();
+        }
+    }
+
+    private synchronized void finish() {
+        worker = null;
+        if (cancelled) {
+            // do not leak the interrupt to the next task of the executor
+            Thread.interrupted();
+        }
+    }
+}
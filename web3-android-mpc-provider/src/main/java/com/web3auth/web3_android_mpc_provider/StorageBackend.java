@@ -0,0 +1,21 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Durable storage for the records of an {@link AccountStateStore}. Records hold node averages
+ * only, no key material.
+ */
+public interface StorageBackend {
+    @Nullable
+    byte[] read(String name) throws IOException;
+
+    /**
+     * Replaces the record atomically, so that a crash never leaves a partially written record.
+     */
+    void write(String name, byte[] data) throws IOException;
+
+    void delete(String name) throws IOException;
+}
@@ -0,0 +1,625 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.web3j.abi.TypeEncoder;
+import org.web3j.abi.datatypes.AbiTypes;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.StructuredDataEncoder;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Computes the same EIP-712 hash as web3j's {@link StructuredDataEncoder#hashStructuredData()},
+ * including its quirks, without building an object tree of the payload: the message is read
+ * token by token and every struct and array is hashed with Keccak as soon as it is complete.
+ * Type hashes are computed once per payload instead of once per struct instance.
+ */
+public final class StreamingStructuredDataEncoder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String DOMAIN_TYPE = "EIP712Domain";
+    private static final byte[] PREFIX = {0x19, 0x01};
+
+    // the patterns of StructuredDataEncoder
+    private static final Pattern ARRAY_TYPE = Pattern.compile("^([a-zA-Z_$][a-zA-Z_$0-9]*)((\\[([1-9]\\d*)?\\])+)$");
+    private static final Pattern BYTES_TYPE = Pattern.compile("^bytes[0-9][0-9]?$");
+    private static final Pattern ARRAY_DIMENSION = Pattern.compile("\\[([1-9]\\d*)?\\]");
+    private static final Pattern TYPE = Pattern.compile("^[a-zA-Z_$][a-zA-Z_$0-9]*(\\[([1-9]\\d*)*\\])*$");
+    private static final Pattern IDENTIFIER = Pattern.compile("^[a-zA-Z_$][a-zA-Z_$0-9]*$");
+
+    private final String json;
+    private Map<String, List<Field>> types;
+    private final Map<String, byte[]> typeHashes = new HashMap<>();
+    private boolean fallback;
+
+    private StreamingStructuredDataEncoder(String json) {
+        this.json = json;
+    }
+
+    public static byte[] hashStructuredData(String json) throws IOException {
+        return new StreamingStructuredDataEncoder(json).hash();
+    }
+
+    private byte[] hash() throws IOException {
+        String primaryType = null;
+        Map<String, Object> domain = null;
+        byte[] messageHash = null;
+        boolean messageDeferred = false;
+        Set<String> seen = new HashSet<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (!seen.add(name)) {
+                    fallback = true;
+                }
+                if (fallback) {
+                    break;
+                }
+                switch (name) {
+                    case "types":
+                        types = readTypes(parser);
+                        break;
+                    case "primaryType":
+                        primaryType = readText(parser);
+                        break;
+                    case "domain":
+                        domain = readDomain(parser);
+                        break;
+                    case "message":
+                        if (types != null && seen.contains("primaryType") && !fallback) {
+                            messageHash = hashObject(parser, primaryType);
+                        } else {
+                            parser.skipChildren();
+                            messageDeferred = true;
+                        }
+                        break;
+                    default:
+                        throw new JsonParseException(parser, "Unrecognized field \"" + name + "\"");
+                }
+            }
+        }
+        if (fallback) {
+            return new StructuredDataEncoder(json).hashStructuredData();
+        }
+        validateTypes();
+        if (domain == null) {
+            throw new NullPointerException("Missing domain");
+        }
+        if (messageDeferred) {
+            messageHash = hashDeferredMessage(primaryType);
+        } else if (messageHash == null) {
+            messageHash = hashNull(primaryType);
+        }
+
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(PREFIX, 0, PREFIX.length);
+        digest.update(hashValues(DOMAIN_TYPE, domain), 0, 32);
+        digest.update(messageHash, 0, 32);
+        return finish(digest);
+    }
+
+    private byte[] hashDeferredMessage(String primaryType) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (name.equals("message")) {
+                    return hashObject(parser, primaryType);
+                }
+                parser.skipChildren();
+            }
+        }
+        return hashNull(primaryType);
+    }
+
+    private Map<String, List<Field>> readTypes(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        Map<String, List<Field>> types = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String structName = parser.getCurrentName();
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            List<Field> fields = new ArrayList<>();
+            Set<String> fieldNames = new HashSet<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+                String name = null;
+                String type = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String property = parser.getCurrentName();
+                    parser.nextToken();
+                    if (property.equals("name")) {
+                        name = readText(parser);
+                    } else if (property.equals("type")) {
+                        type = readText(parser);
+                    } else {
+                        throw new JsonParseException(parser, "Unrecognized field \"" + property + "\"");
+                    }
+                }
+                if (!fieldNames.add(name)) {
+                    // a field name repeated within a struct is encoded once per declaration
+                    fallback = true;
+                }
+                fields.add(new Field(name, type));
+            }
+            types.put(structName, fields);
+        }
+        return types;
+    }
+
+    private static Map<String, Object> readDomain(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        Map<String, Object> domain = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String property = parser.getCurrentName();
+            parser.nextToken();
+            String value = readText(parser);
+            switch (property) {
+                case "name":
+                case "version":
+                case "salt":
+                    domain.put(property, value);
+                    break;
+                case "chainId":
+                    domain.put(property, value == null ? null : narrow(new Uint256(new BigInteger(value)).getValue()));
+                    break;
+                case "verifyingContract":
+                    domain.put(property, value == null ? null : new Address(value).getValue());
+                    break;
+                default:
+                    throw new JsonParseException(parser, "Unrecognized field \"" + property + "\"");
+            }
+        }
+        return domain;
+    }
+
+    private void validateTypes() {
+        for (Map.Entry<String, List<Field>> type : types.entrySet()) {
+            for (Field field : type.getValue()) {
+                if (!IDENTIFIER.matcher(field.name).find()) {
+                    throw new RuntimeException(String.format("Invalid Identifier %s in %s", field.name, type.getKey()));
+                }
+                if (!TYPE.matcher(field.type).find()) {
+                    throw new RuntimeException(String.format("Invalid Type %s in %s", field.type, type.getKey()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the struct the parser is positioned on. Fields may arrive in any order, so each
+     * one is encoded into its slot and the slots are hashed once the object is complete.
+     */
+    private byte[] hashObject(JsonParser parser, String typeName) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return hashNull(typeName);
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            throw new ClassCastException("Expected an object of type " + typeName);
+        }
+        List<Field> fields = types.get(typeName);
+        byte[] typeHash = typeHash(typeName);
+        byte[] slots = new byte[32 * fields.size()];
+        boolean[] present = new boolean[fields.size()];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            int index = indexOf(fields, name);
+            if (index < 0) {
+                parser.skipChildren();
+            } else if (token == JsonToken.VALUE_NULL) {
+                present[index] = false;
+            } else {
+                encodeField(parser, fields.get(index).type, slots, index * 32);
+                present[index] = true;
+            }
+        }
+
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(typeHash, 0, 32);
+        for (int i = 0; i < present.length; i++) {
+            if (present[i]) {
+                digest.update(slots, i * 32, 32);
+            }
+        }
+        return finish(digest);
+    }
+
+    /**
+     * A missing struct only hashes when its type has no fields to look up.
+     */
+    private byte[] hashNull(String typeName) {
+        if (!types.get(typeName).isEmpty()) {
+            throw new NullPointerException("Missing data for " + typeName);
+        }
+        return hashValues(typeName, Collections.emptyMap());
+    }
+
+    private byte[] hashValues(String typeName, Map<String, Object> values) {
+        List<Field> fields = types.get(typeName);
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(typeHash(typeName), 0, 32);
+        byte[] slot = new byte[32];
+        for (Field field : fields) {
+            Object value = values.get(field.name);
+            if (value != null) {
+                encodeScalar(field.type, value, slot, 0);
+                digest.update(slot, 0, 32);
+            }
+        }
+        return finish(digest);
+    }
+
+    private void encodeField(JsonParser parser, String type, byte[] out, int offset) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            encodeScalar(type, readScalar(parser), out, offset);
+        } else if (!type.equals("string") && !type.equals("bytes") && types.containsKey(type)) {
+            System.arraycopy(hashObject(parser, type), 0, out, offset, 32);
+        } else if (!type.equals("string") && !type.equals("bytes") && !BYTES_TYPE.matcher(type).find()
+                && ARRAY_TYPE.matcher(type).find() && token == JsonToken.START_ARRAY) {
+            System.arraycopy(hashArray(parser, type), 0, out, offset, 32);
+        } else {
+            parser.skipChildren();
+            throw new RuntimeException(String.format("Received an invalid value for a field of type %s", type));
+        }
+    }
+
+    /**
+     * Encodes a field holding a JSON scalar, following the order of checks of
+     * {@code StructuredDataEncoder.encodeData}.
+     */
+    private void encodeScalar(String type, Object value, byte[] out, int offset) {
+        if (type.equals("string")) {
+            keccak(((String) value).getBytes(StandardCharsets.UTF_8), out, offset);
+        } else if (type.equals("bytes")) {
+            keccak(Numeric.hexStringToByteArray((String) value), out, offset);
+        } else if (types.containsKey(type)) {
+            throw new ClassCastException("Expected an object of type " + type);
+        } else if (BYTES_TYPE.matcher(type).find()) {
+            encodeAbi(type, Numeric.hexStringToByteArray((String) value), out, offset);
+        } else if (ARRAY_TYPE.matcher(type).find()) {
+            throw new RuntimeException(String.format("Array Data %s does not match the dimensions of %s", value, type));
+        } else if (type.startsWith("uint") || type.startsWith("int")) {
+            Object number;
+            try {
+                number = convertToBigInt(value);
+            } catch (NullPointerException | NumberFormatException e) {
+                number = value;
+            }
+            encodeAbi(type, number, out, offset);
+        } else {
+            encodeAbi(type, value, out, offset);
+        }
+    }
+
+    /**
+     * Hashes the concatenated encodings of the items of the array the parser is positioned on.
+     * Nested arrays are flattened and every depth must hold arrays of one length, as in web3j.
+     */
+    private byte[] hashArray(JsonParser parser, String type) throws IOException {
+        String baseType = type.substring(0, type.indexOf('['));
+        KeccakDigest digest = new KeccakDigest(256);
+        List<Integer> dimensions = new ArrayList<>();
+        hashArrayItems(parser, baseType, digest, dimensions, 0);
+
+        List<Integer> expected = new ArrayList<>();
+        Matcher matcher = ARRAY_DIMENSION.matcher(type);
+        while (matcher.find()) {
+            expected.add(matcher.group(1) == null ? -1 : Integer.parseInt(matcher.group(1)));
+        }
+        boolean matches = expected.size() == dimensions.size();
+        for (int i = 0; matches && i < expected.size(); i++) {
+            matches = expected.get(i) == -1 || expected.get(i).equals(dimensions.get(i));
+        }
+        if (!matches) {
+            throw new RuntimeException(String.format("Array Data has dimensions %s, but expected dimensions are %s", dimensions, expected));
+        }
+        return finish(digest);
+    }
+
+    private void hashArrayItems(JsonParser parser, String baseType, KeccakDigest digest, List<Integer> dimensions, int depth) throws IOException {
+        boolean struct = types.containsKey(baseType);
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            size++;
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_ARRAY) {
+                hashArrayItems(parser, baseType, digest, dimensions, depth + 1);
+            } else if (struct) {
+                digest.update(hashObject(parser, baseType), 0, 32);
+            } else {
+                Object item = null;
+                if (token == JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                } else {
+                    item = readScalar(parser);
+                }
+                byte[] encoded = encodeArrayItem(baseType, item, token == JsonToken.START_OBJECT);
+                digest.update(encoded, 0, encoded.length);
+            }
+        }
+        while (dimensions.size() <= depth) {
+            dimensions.add(null);
+        }
+        if (dimensions.get(depth) == null) {
+            dimensions.set(depth, size);
+        } else if (dimensions.get(depth) != size) {
+            throw new RuntimeException(String.format("Depth %d of array data has more than one dimensions", depth));
+        }
+    }
+
+    /**
+     * The item encoding of {@code StructuredDataEncoder.convertToEncodedItem}, which encodes
+     * anything it cannot convert as no bytes at all.
+     */
+    private static byte[] encodeArrayItem(String baseType, Object item, boolean object) {
+        if (object) {
+            return new byte[0];
+        }
+        try {
+            String lowerCaseType = baseType.toLowerCase();
+            if (lowerCaseType.startsWith("uint") || lowerCaseType.startsWith("int")) {
+                BigInteger value = convertToBigInt(item);
+                if (value.signum() >= 0) {
+                    return Numeric.toBytesPadded(value, 32);
+                }
+                byte[] rawValue = value.toByteArray();
+                byte[] encoded = new byte[32];
+                Arrays.fill(encoded, (byte) -1);
+                System.arraycopy(rawValue, 0, encoded, 32 - rawValue.length, rawValue.length);
+                return encoded;
+            } else if (baseType.equals("string")) {
+                return ((String) item).getBytes(StandardCharsets.UTF_8);
+            } else if (baseType.equals("bytes")) {
+                return Numeric.hexStringToByteArray((String) item);
+            }
+            return Numeric.toBytesPadded(new BigInteger(1, convertArgToBytes((String) item)), 32);
+        } catch (Exception e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * ABI encodes a value into one 32 byte word. Common types whose encoding is certain are
+     * written directly; everything else goes through the reflective lookup web3j uses.
+     */
+    private static void encodeAbi(String type, Object value, byte[] out, int offset) {
+        if (type.equals("address") && value instanceof String) {
+            BigInteger address = toBigIntOrNull((String) value);
+            if (address != null && address.signum() >= 0 && address.bitLength() <= 160) {
+                writePadded(address, out, offset);
+                return;
+            }
+        } else if (type.equals("bool") && value instanceof Boolean) {
+            Arrays.fill(out, offset, offset + 32, (byte) 0);
+            out[offset + 31] = (byte) ((Boolean) value ? 1 : 0);
+            return;
+        } else if (value instanceof BigInteger && (type.startsWith("uint") || type.startsWith("int"))) {
+            boolean unsigned = type.startsWith("uint");
+            int bits = parseSize(type.substring(unsigned ? 4 : 3));
+            BigInteger number = (BigInteger) value;
+            if (bits >= 8 && bits <= 256 && bits % 8 == 0 && (unsigned ? number.signum() >= 0 && number.bitLength() <= bits : number.bitLength() < bits)) {
+                writePadded(number, out, offset);
+                return;
+            }
+        } else if (value instanceof byte[] && type.startsWith("bytes")) {
+            byte[] bytes = (byte[]) value;
+            int size = parseSize(type.substring(5));
+            if (size >= 1 && size <= 32 && bytes.length == size) {
+                Arrays.fill(out, offset, offset + 32, (byte) 0);
+                System.arraycopy(bytes, 0, out, offset, size);
+                return;
+            }
+        }
+        System.arraycopy(encodeReflectively(type, value), 0, out, offset, 32);
+    }
+
+    private static byte[] encodeReflectively(String type, Object value) {
+        Class<?> typeClass = AbiTypes.getType(type);
+        for (Constructor<?> constructor : typeClass.getConstructors()) {
+            try {
+                Type<?> abiValue = (Type<?>) constructor.newInstance(value);
+                return Numeric.hexStringToByteArray(TypeEncoder.encode(abiValue));
+            } catch (ReflectiveOperationException | IllegalArgumentException ignored) {
+                // try the next constructor, as StructuredDataEncoder does
+            }
+        }
+        throw new RuntimeException(String.format("Received an invalid argument for which no constructor exists for the ABI Class %s",
+                typeClass.getSimpleName()));
+    }
+
+    private byte[] typeHash(String typeName) {
+        byte[] hash = typeHashes.get(typeName);
+        if (hash == null) {
+            Set<String> dependencies = dependencies(typeName);
+            dependencies.remove(typeName);
+            List<String> structs = new ArrayList<>(dependencies);
+            Collections.sort(structs);
+            structs.add(0, typeName);
+            StringBuilder encodedType = new StringBuilder();
+            for (String struct : structs) {
+                StringBuilder representation = new StringBuilder(struct + "(");
+                for (Field field : types.get(struct)) {
+                    representation.append(field.type).append(' ').append(field.name).append(',');
+                }
+                encodedType.append(representation, 0, representation.length() - 1).append(')');
+            }
+            hash = new byte[32];
+            keccak(encodedType.toString().getBytes(StandardCharsets.UTF_8), hash, 0);
+            typeHashes.put(typeName, hash);
+        }
+        return hash;
+    }
+
+    private Set<String> dependencies(String typeName) {
+        Set<String> dependencies = new HashSet<>();
+        if (!types.containsKey(typeName)) {
+            return dependencies;
+        }
+        List<String> remaining = new ArrayList<>();
+        remaining.add(typeName);
+        while (!remaining.isEmpty()) {
+            String struct = remaining.remove(remaining.size() - 1);
+            dependencies.add(struct);
+            for (Field field : types.get(struct)) {
+                String baseType = ARRAY_TYPE.matcher(field.type).find() ? field.type.substring(0, field.type.indexOf('[')) : field.type;
+                if (types.containsKey(baseType) && !dependencies.contains(baseType)) {
+                    remaining.add(baseType);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private static Object readScalar(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                // Integer, Long, BigInteger or Double, as the object mapper would produce
+                return parser.getNumberValue();
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonParseException(parser, "Unexpected token " + parser.currentToken());
+        }
+    }
+
+    private static String readText(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string but found " + token);
+        }
+        return parser.getText();
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, JsonToken expected) throws IOException {
+        if (token != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + token);
+        }
+    }
+
+    private static int indexOf(List<Field> fields, String name) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).name.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseSize(String digits) {
+        if (digits.isEmpty() || digits.length() > 3 || digits.charAt(0) == '0') {
+            return -1;
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(digits);
+    }
+
+    /**
+     * Boxes a number the way the object mapper does when web3j turns the domain into a map.
+     */
+    private static Number narrow(BigInteger value) {
+        if (value.bitLength() < 32) {
+            return value.intValue();
+        }
+        return value.bitLength() < 64 ? (Number) value.longValue() : value;
+    }
+
+    private static BigInteger toBigIntOrNull(String hex) {
+        try {
+            return Numeric.toBigInt(hex);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writePadded(BigInteger value, byte[] out, int offset) {
+        byte[] raw = value.toByteArray();
+        int length = Math.min(raw.length, 32);
+        Arrays.fill(out, offset, offset + 32 - length, (byte) (value.signum() < 0 ? -1 : 0));
+        System.arraycopy(raw, raw.length - length, out, offset + 32 - length, length);
+    }
+
+    private static BigInteger convertToBigInt(Object value) {
+        if (value.toString().startsWith("0x")) {
+            return Numeric.toBigInt(value.toString());
+        }
+        return new BigInteger(value.toString());
+    }
+
+    private static byte[] convertArgToBytes(String inputValue) {
+        String hexValue = inputValue;
+        if (!Numeric.containsHexPrefix(inputValue)) {
+            BigInteger value;
+            try {
+                value = new BigInteger(inputValue);
+            } catch (NumberFormatException e) {
+                value = new BigInteger(inputValue, 16);
+            }
+            hexValue = Numeric.toHexStringNoPrefix(value.toByteArray());
+            if (hexValue.length() > 64 && hexValue.startsWith("00")) {
+                hexValue = hexValue.substring(2);
+            }
+        }
+        return Numeric.hexStringToByteArray(hexValue);
+    }
+
+    private static void keccak(byte[] input, byte[] out, int offset) {
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(input, 0, input.length);
+        digest.doFinal(out, offset);
+    }
+
+    private static byte[] finish(KeccakDigest digest) {
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+
+    private static final class Field {
+        final String name;
+        final String type;
+
+        Field(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.web3j.utils.Numeric.hexStringToByteArray;
+
+import com.web3auth.tss_client_android.client.EndpointsData;
+import com.web3auth.tss_client_android.client.TSSClientError;
+import com.web3auth.tss_client_android.client.TSSHelpers;
+
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything a session needs that only depends on the account parameters: the encoded public key,
+ * the candidate nodes and, per threshold subset of those nodes, the server coefficients, the
+ * denormalized share and the endpoints. It is computed once per {@link EthTssAccountParams}
+ * instead of once per signature.
+ */
+final class TssAccountContext {
+    static final int THRESHOLD = 3;
+    static final int PARTIES = THRESHOLD + 1;
+    static final int CLIENT_INDEX = PARTIES - 1;
+
+    final EthTssAccountParams params;
+    final BigInteger userTssIndex;
+    final List<BigInteger> candidateNodes;
+    final byte[] verificationKey;
+    final String base64PublicKey;
+    private final Map<List<BigInteger>, NodeSet> nodeSets = new ConcurrentHashMap<>();
+    volatile boolean destroyed;
+
+    TssAccountContext(EthTssAccountParams params) throws CustomSigningError, TSSClientError {
+        if (params.publicKey.length() < 128 || params.publicKey.length() > 130) {
+            throw new CustomSigningError("Public Key should be in uncompressed format");
+        }
+        this.params = params;
+        userTssIndex = new BigInteger(params.tssIndex, 16);
+
+        List<BigInteger> candidates = new ArrayList<>();
+        if (params.nodeIndexes != null && params.nodeIndexes.length >= THRESHOLD) {
+            candidates.addAll(Arrays.asList(params.nodeIndexes));
+        } else {
+            for (int i = 1; i <= params.tssEndpoints.length; i++) {
+                candidates.add(BigInteger.valueOf(i));
+            }
+        }
+        for (BigInteger node : candidates) {
+            if (node.signum() <= 0 || node.intValue() > params.tssEndpoints.length) {
+                throw new CustomSigningError("No TSS endpoint for node index " + node);
+            }
+        }
+        if (candidates.size() < THRESHOLD) {
+            throw new CustomSigningError("At least " + THRESHOLD + " TSS nodes are required");
+        }
+        candidateNodes = Collections.unmodifiableList(candidates);
+
+        verificationKey = Codec.decodeHex(params.publicKey);
+        base64PublicKey = TSSHelpers.base64PublicKey(hexStringToByteArray(params.publicKey));
+    }
+
+    String endpointOf(BigInteger node) {
+        return params.tssEndpoints[node.intValue() - 1];
+    }
+
+    /**
+     * Returns the derived material for signing with the given nodes, computing it on first use.
+     *
+     * @throws IllegalStateException when the context was destroyed
+     */
+    NodeSet nodeSet(List<BigInteger> nodes) throws TSSClientError {
+        checkNotDestroyed();
+        NodeSet nodeSet = nodeSets.get(nodes);
+        if (nodeSet == null) {
+            nodeSet = new NodeSet(this, nodes);
+            NodeSet existing = nodeSets.putIfAbsent(nodeSet.nodeIndexes, nodeSet);
+            if (existing != null) {
+                nodeSet.destroy();
+                nodeSet = existing;
+            }
+            checkNotDestroyed();
+        }
+        return nodeSet;
+    }
+
+    /**
+     * Wipes the shares. Sessions can no longer be created from this context afterwards.
+     */
+    void destroy() {
+        destroyed = true;
+        for (NodeSet nodeSet : nodeSets.values()) {
+            nodeSet.destroy();
+        }
+    }
+
+    private void checkNotDestroyed() {
+        if (destroyed) {
+            // a node set added while destroy() ran may have been missed by it
+            for (NodeSet nodeSet : nodeSets.values()) {
+                nodeSet.destroy();
+            }
+            throw new IllegalStateException("Account context was destroyed");
+        }
+    }
+
+    static final class NodeSet {
+        final List<BigInteger> nodeIndexes;
+        final Map<String, String> coeffs;
+        final int[] partyIndexes;
+        final String[] endpoints;
+        final String[] socketUrls;
+        final List<String> nodeEndpoints;
+        // the denormalized share, kept as bytes so that it can be wiped
+        private final byte[] share;
+
+        private NodeSet(TssAccountContext context, List<BigInteger> nodes) throws TSSClientError {
+            nodeIndexes = Collections.unmodifiableList(new ArrayList<>(nodes));
+            List<String> serverEndpoints = new ArrayList<>();
+            for (BigInteger node : nodes) {
+                serverEndpoints.add(context.endpointOf(node));
+            }
+            nodeEndpoints = Collections.unmodifiableList(serverEndpoints);
+
+            EndpointsData endpointsData = generateEndpoints(PARTIES, CLIENT_INDEX, serverEndpoints);
+            endpoints = endpointsData.getEndpoints().toArray(new String[0]);
+            socketUrls = endpointsData.getTssWSEndpoints().toArray(new String[0]);
+            partyIndexes = endpointsData.getPartyIndexes().stream().mapToInt(Integer::intValue).toArray();
+
+            BigInteger[] nodeInd = nodes.toArray(new BigInteger[0]);
+            coeffs = Collections.unmodifiableMap(TSSHelpers.getServerCoefficients(nodeInd, context.userTssIndex));
+
+            BigInteger denormalizeShare = TSSHelpers.denormalizeShare(nodeInd, context.userTssIndex,
+                    new BigInteger(context.params.tssShare, 16));
+            share = Numeric.toBytesPadded(denormalizeShare, 32);
+        }
+
+        String base64Share() throws TSSClientError {
+            return TSSHelpers.base64Share(new BigInteger(1, share));
+        }
+
+        byte[] share() {
+            return share.clone();
+        }
+
+        void destroy() {
+            Arrays.fill(share, (byte) 0);
+        }
+
+        private static EndpointsData generateEndpoints(int parties, int clientIndex, List<String> tssEndpoints) {
+            List<String> endpoints = new ArrayList<>();
+            List<String> tssWSEndpoints = new ArrayList<>();
+            List<Integer> partyIndexes = new ArrayList<>();
+
+            for (int i = 0; i < parties; ++i) {
+                partyIndexes.add(i);
+                if (i == clientIndex) {
+                    endpoints.add(null);
+                    tssWSEndpoints.add(null);
+                } else {
+                    endpoints.add(tssEndpoints.get(i));
+                    tssWSEndpoints.add(tssEndpoints.get(i).replace("/tss", ""));
+                }
+            }
+
+            return new EndpointsData(endpoints, tssWSEndpoints, partyIndexes);
+        }
+    }
+}
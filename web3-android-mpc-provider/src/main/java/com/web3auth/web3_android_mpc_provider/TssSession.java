@@ -0,0 +1,44 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.web3auth.tss_client_android.client.TSSClientError;
+import com.web3auth.tss_client_android.client.util.Triple;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * A signing session with the TSS nodes for one account.
+ * A DKLS client is consumed by the signature it produces, so a session is used for exactly one signature.
+ */
+abstract class TssSession {
+    final TssAccountContext context;
+    final TssAccountContext.NodeSet nodes;
+    final EthTssAccountParams params;
+    final List<String> endpoints;
+    final long createdAt;
+    long idleSince;
+    long precomputedAt;
+
+    TssSession(TssAccountContext context, TssAccountContext.NodeSet nodes) {
+        this.context = context;
+        this.nodes = nodes;
+        this.params = context.params;
+        this.endpoints = nodes.nodeEndpoints;
+        this.createdAt = System.currentTimeMillis();
+        this.idleSince = createdAt;
+    }
+
+    abstract boolean checkConnected();
+
+    abstract void precompute() throws TSSClientError;
+
+    boolean isPrecomputed() {
+        return precomputedAt != 0;
+    }
+
+    abstract boolean isReady();
+
+    abstract Triple<BigInteger, BigInteger, Byte> sign(String hash) throws TSSClientError;
+
+    abstract void close();
+}
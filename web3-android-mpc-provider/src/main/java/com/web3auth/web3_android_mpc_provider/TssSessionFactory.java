@@ -0,0 +1,9 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.web3auth.tss_client_android.client.TSSClientError;
+
+interface TssSessionFactory {
+    TssSessionFactory DKLS = DklsTssSession::bootstrap;
+
+    TssSession create(TssAccountContext context, TssAccountContext.NodeSet nodes) throws CustomSigningError, TSSClientError;
+}
@@ -0,0 +1,217 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.web3auth.tss_client_android.client.TSSClientError;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps bootstrapped and connected TSS sessions per account so that the session setup and
+ * websocket handshakes are paid ahead of time instead of on the signing path.
+ */
+public class TssSessionPool {
+    public static final int DEFAULT_MAX_IDLE_PER_ACCOUNT = 2;
+    public static final int DEFAULT_MAX_TOTAL = 16;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+
+    private static final TssSessionPool DEFAULT_POOL = new TssSessionPool();
+
+    private final int maxIdlePerAccount;
+    private final int maxTotal;
+    private final long idleTimeoutMillis;
+    private final TssSessionFactory sessionFactory;
+    final EndpointSelector endpointSelector;
+    private final Map<EthTssAccountParams, ArrayDeque<TssSession>> idleSessions = new HashMap<>();
+    private int idleCount;
+
+    public TssSessionPool() {
+        this(DEFAULT_MAX_IDLE_PER_ACCOUNT, DEFAULT_MAX_TOTAL, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public TssSessionPool(int maxIdlePerAccount, int maxTotal, long idleTimeoutMillis) {
+        this(maxIdlePerAccount, maxTotal, idleTimeoutMillis, EndpointSelector.getDefault());
+    }
+
+    public TssSessionPool(int maxIdlePerAccount, int maxTotal, long idleTimeoutMillis, EndpointSelector endpointSelector) {
+        this(maxIdlePerAccount, maxTotal, idleTimeoutMillis, endpointSelector, TssSessionFactory.DKLS);
+    }
+
+    TssSessionPool(int maxIdlePerAccount, int maxTotal, long idleTimeoutMillis, EndpointSelector endpointSelector, TssSessionFactory sessionFactory) {
+        if (maxIdlePerAccount < 0 || maxTotal < 0 || idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Pool limits must not be negative");
+        }
+        this.maxIdlePerAccount = maxIdlePerAccount;
+        this.maxTotal = maxTotal;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.endpointSelector = endpointSelector;
+        this.sessionFactory = sessionFactory;
+    }
+
+    public static TssSessionPool getDefault() {
+        return DEFAULT_POOL;
+    }
+
+    /**
+     * Returns an idle session for the account, or bootstraps a new one on the best node subset when
+     * there is none. Sessions on an excluded node subset are not used. The caller checks that the
+     * session is connected, so that each session pays for one connectivity round trip only.
+     */
+    TssSession acquire(TssAccountContext context, Collection<List<BigInteger>> excludedNodes) throws CustomSigningError, TSSClientError {
+        evictIdle();
+        TssSession session;
+        while ((session = poll(context.params)) != null) {
+            if (!session.context.destroyed && !excludedNodes.contains(session.nodes.nodeIndexes)) {
+                return session;
+            }
+            session.close();
+        }
+        return create(context, excludedNodes);
+    }
+
+    private TssSession create(TssAccountContext context, Collection<List<BigInteger>> excludedNodes) throws CustomSigningError, TSSClientError {
+        List<BigInteger> nodes = endpointSelector.select(context, excludedNodes);
+        return sessionFactory.create(context, context.nodeSet(nodes));
+    }
+
+    /**
+     * Bootstraps sessions for the account until it has {@code count} idle sessions or the pool is
+     * full. Accounts warm up their sessions through {@link EthereumTssAccount#warmUpSessions(int)},
+     * which shares the account's derived material.
+     */
+    void warmUp(TssAccountContext context, int count) throws CustomSigningError, TSSClientError {
+        evictIdle();
+        while (hasRoomFor(context.params, count)) {
+            TssSession session = create(context, Collections.emptyList());
+            long start = System.nanoTime();
+            if (!session.checkConnected()) {
+                endpointSelector.recordFailure(session.endpoints);
+                session.close();
+                throw new CustomSigningError("Unable to establish connection to TSS server");
+            }
+            endpointSelector.recordSuccess(session.endpoints, System.nanoTime() - start);
+            if (!offer(session)) {
+                session.close();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes every idle session that has not been used within the idle timeout.
+     *
+     * @return the number of sessions closed
+     */
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        List<TssSession> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<ArrayDeque<TssSession>> queues = idleSessions.values().iterator();
+            while (queues.hasNext()) {
+                ArrayDeque<TssSession> queue = queues.next();
+                Iterator<TssSession> sessions = queue.iterator();
+                while (sessions.hasNext()) {
+                    TssSession session = sessions.next();
+                    if (session.idleSince < cutoff) {
+                        sessions.remove();
+                        evicted.add(session);
+                    }
+                }
+                if (queue.isEmpty()) {
+                    queues.remove();
+                }
+            }
+            idleCount -= evicted.size();
+        }
+        for (TssSession session : evicted) {
+            session.close();
+        }
+        return evicted.size();
+    }
+
+    /**
+     * Closes the idle sessions of the account, e.g. when it logs out, as their clients hold its share.
+     *
+     * @return the number of sessions closed
+     */
+    public int evict(EthTssAccountParams params) {
+        ArrayDeque<TssSession> evicted;
+        synchronized (this) {
+            evicted = idleSessions.remove(params);
+            if (evicted == null) {
+                return 0;
+            }
+            idleCount -= evicted.size();
+        }
+        for (TssSession session : evicted) {
+            session.close();
+        }
+        return evicted.size();
+    }
+
+    public void clear() {
+        List<TssSession> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (ArrayDeque<TssSession> queue : idleSessions.values()) {
+                evicted.addAll(queue);
+            }
+            idleSessions.clear();
+            idleCount = 0;
+        }
+        for (TssSession session : evicted) {
+            session.close();
+        }
+    }
+
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    public synchronized int getIdleCount(EthTssAccountParams params) {
+        ArrayDeque<TssSession> queue = idleSessions.get(params);
+        return queue == null ? 0 : queue.size();
+    }
+
+    synchronized boolean offer(TssSession session) {
+        if (idleCount >= maxTotal || session.context.destroyed) {
+            return false;
+        }
+        ArrayDeque<TssSession> queue = idleSessions.get(session.params);
+        if ((queue == null ? 0 : queue.size()) >= maxIdlePerAccount) {
+            return false;
+        }
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            idleSessions.put(session.params, queue);
+        }
+        session.idleSince = System.currentTimeMillis();
+        queue.addLast(session);
+        idleCount++;
+        return true;
+    }
+
+    private synchronized TssSession poll(EthTssAccountParams params) {
+        ArrayDeque<TssSession> queue = idleSessions.get(params);
+        if (queue == null) {
+            return null;
+        }
+        TssSession session = queue.pollFirst();
+        if (queue.isEmpty()) {
+            idleSessions.remove(params);
+        }
+        if (session != null) {
+            idleCount--;
+        }
+        return session;
+    }
+
+    private synchronized boolean hasRoomFor(EthTssAccountParams params, int count) {
+        return idleCount < maxTotal && getIdleCount(params) < Math.min(count, maxIdlePerAccount);
+    }
+}
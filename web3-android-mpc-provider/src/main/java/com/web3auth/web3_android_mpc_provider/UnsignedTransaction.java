@@ -0,0 +1,152 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import androidx.annotation.Nullable;
+
+import org.web3j.crypto.Hash;
+import org.web3j.rlp.RlpDecoder;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An unsigned transaction in its RLP encoding: a legacy transaction, signed with EIP-155 replay
+ * protection, or an EIP-2718 typed transaction (EIP-2930 or EIP-1559). The fields are kept as
+ * decoded, so access lists survive signing even though web3j's transaction model drops them.
+ */
+final class UnsignedTransaction {
+    static final byte TYPE_ACCESS_LIST = 0x01;
+    static final byte TYPE_DYNAMIC_FEE = 0x02;
+
+    private static final int LEGACY_FIELDS = 6;
+    private static final int ACCESS_LIST_FIELDS = 8;
+    private static final int DYNAMIC_FEE_FIELDS = 9;
+
+    @Nullable
+    private final Byte type;
+    private final List<RlpType> fields;
+    final long chainId;
+
+    private UnsignedTransaction(@Nullable Byte type, List<RlpType> fields, long chainId) {
+        this.type = type;
+        this.fields = fields;
+        this.chainId = chainId;
+    }
+
+    /**
+     * @param encoded the unsigned transaction; legacy transactions may be in their plain six field
+     *                form or in the nine field EIP-155 signing form
+     * @param chainId the chain to sign for, which a typed or EIP-155 encoding has to agree with
+     */
+    static UnsignedTransaction decode(byte[] encoded, long chainId) {
+        if (encoded.length == 0) {
+            throw new IllegalArgumentException("Empty transaction");
+        }
+        int first = encoded[0] & 0xff;
+        if (first >= RlpDecoder.OFFSET_SHORT_LIST) {
+            List<RlpType> fields = decodeFields(encoded);
+            if (fields.size() == LEGACY_FIELDS + 3) {
+                if (!isEmpty(fields.get(LEGACY_FIELDS + 1)) || !isEmpty(fields.get(LEGACY_FIELDS + 2))) {
+                    throw new IllegalArgumentException("Transaction is already signed");
+                }
+                checkChainId(fields.get(LEGACY_FIELDS), chainId);
+                fields = fields.subList(0, LEGACY_FIELDS);
+            } else if (fields.size() != LEGACY_FIELDS) {
+                throw new IllegalArgumentException("Legacy transaction with " + fields.size() + " fields");
+            }
+            return new UnsignedTransaction(null, new ArrayList<>(fields), chainId);
+        }
+
+        int expectedFields;
+        if (first == TYPE_ACCESS_LIST) {
+            expectedFields = ACCESS_LIST_FIELDS;
+        } else if (first == TYPE_DYNAMIC_FEE) {
+            expectedFields = DYNAMIC_FEE_FIELDS;
+        } else {
+            throw new IllegalArgumentException("Unsupported transaction type " + first);
+        }
+        List<RlpType> fields = decodeFields(Arrays.copyOfRange(encoded, 1, encoded.length));
+        if (fields.size() == expectedFields + 3) {
+            throw new IllegalArgumentException("Transaction is already signed");
+        } else if (fields.size() != expectedFields) {
+            throw new IllegalArgumentException("Type " + first + " transaction with " + fields.size() + " fields");
+        }
+        checkChainId(fields.get(0), chainId);
+        return new UnsignedTransaction(encoded[0], new ArrayList<>(fields), chainId);
+    }
+
+    boolean isLegacy() {
+        return type == null;
+    }
+
+    /**
+     * Returns the Keccak hash the signature has to cover.
+     */
+    byte[] signingHash() {
+        if (isLegacy()) {
+            List<RlpType> values = new ArrayList<>(fields);
+            values.add(RlpString.create(chainId));
+            values.add(RlpString.create(new byte[0]));
+            values.add(RlpString.create(new byte[0]));
+            return Hash.sha3(RlpEncoder.encode(new RlpList(values)));
+        }
+        return Hash.sha3(envelope(fields));
+    }
+
+    /**
+     * Returns the signed transaction, ready for {@code eth_sendRawTransaction}.
+     *
+     * @param recoveryId the recovery id of the signature, 0 or 1
+     */
+    byte[] encodeSigned(int recoveryId, BigInteger r, BigInteger s) {
+        if (recoveryId != 0 && recoveryId != 1) {
+            throw new IllegalArgumentException("Invalid recovery id " + recoveryId);
+        }
+        List<RlpType> values = new ArrayList<>(fields);
+        if (isLegacy()) {
+            // EIP-155: v = recovery id + chain id * 2 + 35, which does not fit a byte for most chains
+            values.add(RlpString.create(BigInteger.valueOf(chainId).shiftLeft(1).add(BigInteger.valueOf(35 + recoveryId))));
+        } else {
+            values.add(RlpString.create(recoveryId));
+        }
+        values.add(RlpString.create(r));
+        values.add(RlpString.create(s));
+        return isLegacy() ? RlpEncoder.encode(new RlpList(values)) : envelope(values);
+    }
+
+    private byte[] envelope(List<RlpType> values) {
+        byte[] payload = RlpEncoder.encode(new RlpList(values));
+        byte[] encoded = new byte[payload.length + 1];
+        encoded[0] = type;
+        System.arraycopy(payload, 0, encoded, 1, payload.length);
+        return encoded;
+    }
+
+    private static List<RlpType> decodeFields(byte[] encoded) {
+        List<RlpType> root;
+        try {
+            root = RlpDecoder.decode(encoded).getValues();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed transaction RLP", e);
+        }
+        if (root.size() != 1 || !(root.get(0) instanceof RlpList)) {
+            throw new IllegalArgumentException("Malformed transaction RLP");
+        }
+        return ((RlpList) root.get(0)).getValues();
+    }
+
+    private static void checkChainId(RlpType field, long chainId) {
+        if (!(field instanceof RlpString) || !((RlpString) field).asPositiveBigInteger().equals(BigInteger.valueOf(chainId))) {
+            throw new IllegalArgumentException("Transaction is not for chain " + chainId);
+        }
+    }
+
+    private static boolean isEmpty(RlpType field) {
+        return field instanceof RlpString && ((RlpString) field).getBytes().length == 0;
+    }
+}
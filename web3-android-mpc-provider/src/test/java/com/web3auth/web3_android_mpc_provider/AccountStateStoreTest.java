@@ -0,0 +1,240 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.web3j.utils.Numeric;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccountStateStoreTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockTssSessionFactory sessionFactory = new MockTssSessionFactory(
+            new MockTssNode("http://127.0.0.1:7001/tss", 0),
+            new MockTssNode("http://127.0.0.1:7002/tss", 0),
+            new MockTssNode("http://127.0.0.1:7003/tss", 0),
+            new MockTssNode("http://127.0.0.1:7004/tss", 0));
+    private final List<BigInteger> nodes = Arrays.asList(BigInteger.ONE, BigInteger.valueOf(2), BigInteger.valueOf(3));
+    private EthTssAccountParams params;
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        params = sessionFactory.accountParams();
+        directory = folder.newFolder();
+    }
+
+    @Test
+    public void restoresNodeAverages() throws Exception {
+        EndpointSelector selector = new EndpointSelector();
+        selector.recordSuccess(Arrays.asList(params.tssEndpoints), 40_000_000);
+        selector.recordFailure(Collections.singletonList(params.tssEndpoints[0]));
+        store().save(new TssAccountContext(params), selector);
+
+        EndpointSelector restored = new EndpointSelector();
+        assertTrue(store().restore(params, restored));
+        for (String endpoint : params.tssEndpoints) {
+            assertEquals(selector.getLatencyMillis(endpoint), restored.getLatencyMillis(endpoint), 0);
+            assertEquals(selector.getErrorRate(endpoint), restored.getErrorRate(endpoint), 0);
+        }
+    }
+
+    @Test
+    public void restoreKeepsAveragesMeasuredInThisProcess() throws Exception {
+        EndpointSelector selector = new EndpointSelector();
+        selector.recordFailure(Collections.singletonList(params.tssEndpoints[0]));
+        store().save(new TssAccountContext(params), selector);
+
+        EndpointSelector measured = new EndpointSelector();
+        measured.recordSuccess(Collections.singletonList(params.tssEndpoints[0]), 40_000_000);
+        assertTrue(store().restore(params, measured));
+        assertEquals(0, measured.getErrorRate(params.tssEndpoints[0]), 0);
+    }
+
+    @Test
+    public void recordHoldsNoKeyMaterial() throws Exception {
+        TssAccountContext context = new TssAccountContext(params);
+        byte[] share = context.nodeSet(nodes).share();
+        EndpointSelector selector = new EndpointSelector();
+        selector.recordSuccess(Arrays.asList(params.tssEndpoints), 40_000_000);
+        store().save(context, selector);
+
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        String record = Numeric.toHexStringNoPrefix(Files.readAllBytes(files[0].toPath()));
+        assertFalse(record.contains(Numeric.toHexStringNoPrefix(share)));
+        assertFalse(record.contains(params.tssShare));
+        assertFalse(record.contains(params.factorKey));
+    }
+
+    @Test
+    public void discardsCorruptRecord() throws Exception {
+        saveAverages();
+        File file = directory.listFiles()[0];
+        byte[] record = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(record, record.length - 3));
+        assertFalse(store().restore(params, new EndpointSelector()));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void discardsRecordWithOutOfRangeAverages() throws Exception {
+        saveAverages();
+        File file = directory.listFiles()[0];
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            output.writeInt(3);
+            output.writeLong(System.currentTimeMillis());
+            output.writeInt(1);
+            output.writeUTF(params.tssEndpoints[0]);
+            output.writeDouble(40_000_000);
+            output.writeDouble(Double.NaN);
+        }
+        EndpointSelector selector = new EndpointSelector();
+        assertFalse(store().restore(params, selector));
+        assertEquals(0, selector.getErrorRate(params.tssEndpoints[0]), 0);
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void discardsRecordOfChangedEndpoints() throws Exception {
+        saveAverages();
+        String[] endpoints = params.tssEndpoints.clone();
+        endpoints[0] = "http://127.0.0.1:7005/tss";
+        EthTssAccountParams moved = new EthTssAccountParams(params.publicKey, params.factorKey, params.tssNonce,
+                params.tssShare, params.tssIndex, params.selectedTag, params.verifier, params.verifierID,
+                params.nodeIndexes, endpoints, params.authSigs);
+        assertFalse(store().restore(moved, new EndpointSelector()));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void discardsExpiredRecord() throws Exception {
+        EndpointSelector selector = new EndpointSelector();
+        selector.recordFailure(Collections.singletonList(params.tssEndpoints[0]));
+        new AccountStateStore(new FileStorageBackend(directory), 1).save(new TssAccountContext(params), selector);
+        Thread.sleep(5);
+        assertFalse(new AccountStateStore(new FileStorageBackend(directory), 1).restore(params, new EndpointSelector()));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void destroyedContextIsNotWritten() throws Exception {
+        TssAccountContext context = new TssAccountContext(params);
+        context.destroy();
+        try {
+            store().save(context, new EndpointSelector());
+            fail("a destroyed context must not be written");
+        } catch (IOException expected) {
+            // expected
+        }
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void destroyedContextHandsOutNoMaterial() throws Exception {
+        TssAccountContext context = new TssAccountContext(params);
+        TssAccountContext.NodeSet nodeSet = context.nodeSet(nodes);
+        context.destroy();
+        assertArrayEquals(new byte[32], nodeSet.share());
+        try {
+            context.nodeSet(nodes);
+            fail("a destroyed context must not hand out node sets");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void accountSavesAfterSigningAndRestoresOnColdStart() throws Exception {
+        EndpointSelector selector = new EndpointSelector();
+        EthereumTssAccount account = newAccount(selector, store());
+        account.executor = Runnable::run;
+        account.signMessage("cold start");
+        assertEquals(1, directory.list().length);
+        // the first node went down after the first signature
+        selector.recordFailure(Collections.singletonList(params.tssEndpoints[0]));
+        account.saveState();
+
+        MockTssNode down = sessionFactory.nodes.get(0);
+        down.down = true;
+        down.peakSessions.set(0);
+        EndpointSelector restartedSelector = new EndpointSelector();
+        EthereumTssAccount restarted = newAccount(restartedSelector, store());
+        assertNotNull(restarted.signMessage("warm start"));
+        assertTrue(restartedSelector.getErrorRate(params.tssEndpoints[0]) > 0);
+        assertEquals("the restarted account tried the node known to be down", 0, down.peakSessions.get());
+
+        restarted.destroy();
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void failedSaveIsRetriedOnTheNextSignature() throws Exception {
+        AtomicInteger failures = new AtomicInteger(1);
+        FileStorageBackend files = new FileStorageBackend(directory);
+        StorageBackend backend = new StorageBackend() {
+            @Override
+            public byte[] read(String name) throws IOException {
+                return files.read(name);
+            }
+
+            @Override
+            public void write(String name, byte[] data) throws IOException {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IOException("disk full");
+                }
+                files.write(name, data);
+            }
+
+            @Override
+            public void delete(String name) throws IOException {
+                files.delete(name);
+            }
+        };
+        EthereumTssAccount account = newAccount(new EndpointSelector(), new AccountStateStore(backend));
+        account.executor = Runnable::run;
+        account.signMessage("first");
+        assertEquals(0, directory.list().length);
+        account.signMessage("second");
+        assertEquals(1, directory.list().length);
+    }
+
+    private EthereumTssAccount newAccount(EndpointSelector selector, AccountStateStore store) {
+        EthereumTssAccount account = new EthereumTssAccount(params, new TssSessionPool(0, 0,
+                TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, selector, sessionFactory));
+        account.stateStore = store;
+        return account;
+    }
+
+    private void saveAverages() throws Exception {
+        EndpointSelector selector = new EndpointSelector();
+        selector.recordSuccess(Arrays.asList(params.tssEndpoints), 40_000_000);
+        store().save(new TssAccountContext(params), selector);
+        assertEquals(1, directory.list().length);
+    }
+
+    private AccountStateStore store() {
+        return new AccountStateStore(new FileStorageBackend(directory));
+    }
+}
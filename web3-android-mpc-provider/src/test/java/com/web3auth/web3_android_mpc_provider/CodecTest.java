@@ -0,0 +1,100 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Base64;
+import java.util.Random;
+
+public class CodecTest {
+
+    private static final String PUBLIC_KEY = "04238569d5e12caf57d34fb5b2a0679c7775b5f61fd18cd69db9cc600a651749c3"
+            + "ec13a9367380b7a024a67f5e663f3afd40175c3223da63f6024b05d0bd9f292e";
+
+    // the conversion Utils.convertToBytes used before the codec
+    private static byte[] legacyConvertToBytes(String s) {
+        String tmp;
+        byte[] b = new byte[s.length() / 2];
+        int i;
+        for (i = 0; i < s.length() / 2; i++) {
+            tmp = s.substring(i * 2, i * 2 + 2);
+            b[i] = (byte) (Integer.parseInt(tmp, 16) & 0xff);
+        }
+        return b;
+    }
+
+    @Test
+    public void decodeHexMatchesLegacyConversion() {
+        for (String hex : new String[]{PUBLIC_KEY, PUBLIC_KEY.toUpperCase(), "", "0", "00ff", "abc", "DeadBeef"}) {
+            assertArrayEquals(hex, legacyConvertToBytes(hex), Codec.decodeHex(hex));
+            assertArrayEquals(hex, legacyConvertToBytes(hex), Utils.convertToBytes(hex));
+        }
+    }
+
+    @Test
+    public void decodeHexIntoBuffer() {
+        byte[] out = new byte[6];
+        assertEquals(4, Codec.decodeHex("0102fffe", out, 2));
+        assertArrayEquals(new byte[]{0, 0, 1, 2, (byte) 0xff, (byte) 0xfe}, out);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void decodeHexRejectsInvalidDigits() {
+        Codec.decodeHex("0x12");
+    }
+
+    @Test
+    public void encodeHexRoundTrips() {
+        byte[] bytes = randomBytes(65);
+        String hex = Codec.encodeHex(bytes);
+        assertEquals(130, hex.length());
+        assertEquals(hex.toLowerCase(), hex);
+        assertArrayEquals(bytes, Codec.decodeHex(hex));
+    }
+
+    @Test
+    public void encodeBase64MatchesJdk() {
+        for (int length = 0; length <= 70; length++) {
+            byte[] bytes = randomBytes(length);
+            assertEquals(Base64.getEncoder().encodeToString(bytes), Codec.encodeBase64(bytes));
+        }
+    }
+
+    @Test
+    public void encodeBase64IntoBuffer() {
+        byte[] digest = randomBytes(32);
+        char[] out = new char[Codec.base64Length(32) + 1];
+        out[0] = '!';
+        assertEquals(44, Codec.encodeBase64(digest, 0, digest.length, out, 1));
+        assertEquals("!" + Base64.getEncoder().encodeToString(digest), new String(out));
+    }
+
+    @Test
+    public void decodeBase64MatchesJdk() {
+        for (int length = 0; length <= 70; length++) {
+            byte[] bytes = randomBytes(length);
+            String padded = Base64.getEncoder().encodeToString(bytes);
+            String unpadded = Base64.getEncoder().withoutPadding().encodeToString(bytes);
+            assertArrayEquals(bytes, Codec.decodeBase64(padded));
+            assertArrayEquals(bytes, Codec.decodeBase64(unpadded));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeBase64RejectsInvalidCharacters() {
+        Codec.decodeBase64("ab-d");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeBase64RejectsInvalidLength() {
+        Codec.decodeBase64("abcde");
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,134 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class EndpointSelectorTest {
+
+    private final MockTssSessionFactory sessionFactory = new MockTssSessionFactory(
+            new MockTssNode("http://127.0.0.1:7001/tss", 0),
+            new MockTssNode("http://127.0.0.1:7002/tss", 0),
+            new MockTssNode("http://127.0.0.1:7003/tss", 0),
+            new MockTssNode("http://127.0.0.1:7004/tss", 0));
+    private final EndpointSelector selector = new EndpointSelector();
+    private TssAccountContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TssAccountContext(sessionFactory.accountParams());
+    }
+
+    @Test
+    public void unmeasuredNodesKeepTheirOrder() {
+        assertEquals(nodes(1, 2, 3), selector.select(context, Collections.emptyList()));
+    }
+
+    @Test
+    public void avoidsTheSlowestNode() {
+        selector.recordSuccess(endpoints(2, 3, 4), 10_000_000);
+        selector.recordSuccess(endpoints(1), 500_000_000);
+        assertEquals(nodes(2, 3, 4), selector.select(context, Collections.emptyList()));
+    }
+
+    @Test
+    public void subsetIsScoredByItsSlowestNode() {
+        selector.recordSuccess(endpoints(1), 40_000_000);
+        selector.recordSuccess(endpoints(2), 10_000_000);
+        selector.recordSuccess(endpoints(3), 30_000_000);
+        selector.recordSuccess(endpoints(4), 50_000_000);
+        assertEquals(nodes(1, 2, 3), selector.select(context, Collections.emptyList()));
+    }
+
+    @Test
+    public void avoidsAFailingNodeThatIsOtherwiseFastest() {
+        selector.recordSuccess(endpoints(1, 2, 3, 4), 20_000_000);
+        selector.recordSuccess(endpoints(2), 1_000_000);
+        selector.recordFailure(endpoints(2));
+        assertEquals(nodes(1, 3, 4), selector.select(context, Collections.emptyList()));
+    }
+
+    @Test
+    public void nodeThatOnlyFailedScoresAsTheSlowestNodeSeen() {
+        selector.recordSuccess(endpoints(1, 2, 3), 20_000_000);
+        selector.recordFailure(endpoints(4));
+        assertEquals(nodes(1, 2, 3), selector.select(context, Collections.emptyList()));
+        assertEquals(0, selector.getLatencyMillis(endpoints(4).get(0)), 0);
+        assertTrue(selector.getErrorRate(endpoints(4).get(0)) > 0);
+    }
+
+    @Test
+    public void skipsExcludedSubsets() {
+        List<List<BigInteger>> excluded = Arrays.asList(nodes(1, 2, 3), nodes(1, 2, 4));
+        assertEquals(nodes(1, 3, 4), selector.select(context, excluded));
+    }
+
+    @Test
+    public void fallsBackToTheBestExcludedSubset() {
+        selector.recordSuccess(endpoints(1, 2, 3, 4), 20_000_000);
+        selector.recordFailure(endpoints(1));
+        List<List<BigInteger>> excluded = Arrays.asList(nodes(1, 2, 3), nodes(1, 2, 4), nodes(1, 3, 4), nodes(2, 3, 4));
+        assertEquals(nodes(2, 3, 4), selector.select(context, excluded));
+    }
+
+    @Test
+    public void accountFailsOverToASubsetWithoutTheDownNode() throws Exception {
+        sessionFactory.nodes.get(0).down = true;
+        // failures are attributed to whole subsets, so every subset with the down node may be tried first
+        EndpointSelector selector = new EndpointSelector(4);
+        EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, selector, sessionFactory));
+        assertNotNull(account.signMessage("failover"));
+        assertTrue(selector.getErrorRate(endpoints(1).get(0)) > selector.getErrorRate(endpoints(2).get(0)));
+
+        sessionFactory.nodes.get(0).peakSessions.set(0);
+        assertNotNull(account.signMessage("after failover"));
+        assertEquals(0, sessionFactory.nodes.get(0).peakSessions.get());
+    }
+
+    @Test
+    public void accountGivesUpAfterTheMaximumAttempts() throws Exception {
+        for (MockTssNode node : sessionFactory.nodes) {
+            node.down = true;
+        }
+        EndpointSelector selector = new EndpointSelector(2);
+        EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, selector, sessionFactory));
+        try {
+            account.signMessage("unreachable");
+            fail("every node is down");
+        } catch (CustomSigningError expected) {
+            // expected
+        }
+        // the first node is in both subsets tried, and in no third one
+        EndpointSelector twoFailures = new EndpointSelector();
+        twoFailures.recordFailure(endpoints(1));
+        twoFailures.recordFailure(endpoints(1));
+        assertEquals(twoFailures.getErrorRate(endpoints(1).get(0)), selector.getErrorRate(endpoints(1).get(0)), 1e-9);
+    }
+
+    private static List<BigInteger> nodes(int... indexes) {
+        BigInteger[] nodes = new BigInteger[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            nodes[i] = BigInteger.valueOf(indexes[i]);
+        }
+        return Arrays.asList(nodes);
+    }
+
+    private List<String> endpoints(int... indexes) {
+        String[] endpoints = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            endpoints[i] = sessionFactory.nodes.get(indexes[i] - 1).endpoint;
+        }
+        return Arrays.asList(endpoints);
+    }
+}
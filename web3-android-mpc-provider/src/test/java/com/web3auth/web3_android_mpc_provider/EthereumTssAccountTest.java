@@ -0,0 +1,234 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EthereumTssAccountTest {
+
+    private final MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(50);
+    private final EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(),
+            new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory));
+
+    @Test
+    public void concurrentCallersOfTheSameDigestShareOneSignature() throws Exception {
+        Map<SigningStage, AtomicInteger> stages = countStages(account);
+        List<CompletableFuture<String>> signatures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            signatures.add(account.signMessageAsync("same"));
+        }
+        String signature = account.signMessage("same");
+
+        for (CompletableFuture<String> async : signatures) {
+            assertEquals(signature, async.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, stages.get(SigningStage.SIGN).get());
+    }
+
+    @Test
+    public void differentDigestsAreSignedSeparately() throws Exception {
+        Map<SigningStage, AtomicInteger> stages = countStages(account);
+        CompletableFuture<String> first = account.signMessageAsync("first");
+        CompletableFuture<String> second = account.signMessageAsync("second");
+
+        assertFalse(first.get(5, TimeUnit.SECONDS).equals(second.get(5, TimeUnit.SECONDS)));
+        assertEquals(2, stages.get(SigningStage.SIGN).get());
+    }
+
+    @Test
+    public void completedSignatureIsNotSharedWithLaterCallers() throws Exception {
+        Map<SigningStage, AtomicInteger> stages = countStages(account);
+        assertEquals(account.signMessage("again"), account.signMessage("again"));
+        assertEquals(2, stages.get(SigningStage.SIGN).get());
+    }
+
+    @Test
+    public void failureOfTheSharedSignatureReachesCallersThatJoinedIt() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        account.signingListener = (stage, address, endpoints, durationNanos, error) -> {
+            if (stage == SigningStage.BOOTSTRAP) {
+                attempts.incrementAndGet();
+                // keeps the failing signature running long enough to be joined
+                sleep(50);
+            }
+        };
+        for (MockTssNode node : sessionFactory.nodes) {
+            node.down = true;
+        }
+        CompletableFuture<String> owner = account.signMessageAsync("unreachable");
+        awaitRunning(account.scheduler);
+        CompletableFuture<String> joined = account.signMessageAsync("unreachable");
+        for (CompletableFuture<String> signature : Arrays.asList(owner, joined)) {
+            try {
+                signature.get(5, TimeUnit.SECONDS);
+                fail("every node is down");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof CustomSigningError);
+            }
+        }
+        // the only node subset is tried twice by the signing caller, and not again by the joined one
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void asyncCallerJoiningASignatureDoesNotHoldTheSlotItNeeds() throws Exception {
+        account.scheduler = new SigningScheduler(4, 1, 10, 3_000);
+        // the async call is scheduled first but starts after the synchronous call took over the digest
+        CompletableFuture<String> async = account.signMessageAsync("same", delayed(200));
+        long start = System.nanoTime();
+        String signature = account.signMessage("same");
+
+        assertEquals(signature, async.get(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3_000);
+        assertEquals(0, account.scheduler.getRunningCount());
+    }
+
+    @Test
+    public void asyncCacheHitDoesNotWaitForASlot() throws Exception {
+        account.scheduler = new SigningScheduler(4, 1, 10, 30_000);
+        account.signatureCache = new SignatureCache(SignatureCache.PayloadType.MESSAGE);
+        String signature = account.signMessage("cached");
+
+        CompletableFuture<String> running = account.signMessageAsync("uncached");
+        awaitRunning(account.scheduler);
+        assertEquals(signature, account.signMessageAsync("cached").get(5, TimeUnit.SECONDS));
+        assertFalse("the cache hit waited for the running signature", running.isDone());
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void cancellingTheCallerSigningADigestDoesNotFailCallersThatJoinedIt() throws Exception {
+        CompletableFuture<String> owner = account.signMessageAsync("shared");
+        awaitRunning(account.scheduler);
+        CompletableFuture<String> joined = account.signMessageAsync("shared");
+        Thread.sleep(100);
+
+        owner.cancel(false);
+        assertTrue(owner.isCancelled());
+        assertEquals(account.signMessage("shared"), joined.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void interruptingTheCallerSigningADigestDoesNotFailCallersThatJoinedIt() throws Exception {
+        CompletableFuture<Throwable> ownerFailure = new CompletableFuture<>();
+        Thread owner = new Thread(() -> {
+            try {
+                account.signMessage("shared");
+                ownerFailure.complete(null);
+            } catch (Throwable e) {
+                ownerFailure.complete(e);
+            }
+        });
+        owner.start();
+        awaitRunning(account.scheduler);
+        CompletableFuture<String> joined = account.signMessageAsync("shared");
+        Thread.sleep(100);
+
+        owner.interrupt();
+        assertNotNull(ownerFailure.get(5, TimeUnit.SECONDS));
+        assertEquals(account.signMessage("shared"), joined.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void destroyClosesWarmedSessionsOfTheAccount() throws Exception {
+        TssSessionPool pool = new TssSessionPool(2, 16, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory);
+        EthTssAccountParams params = sessionFactory.accountParams();
+        EthereumTssAccount warmed = new EthereumTssAccount(params, pool);
+        warmed.warmUpSessions(2);
+        assertEquals(2, pool.getIdleCount(params));
+
+        warmed.destroy();
+        assertEquals(0, pool.getIdleCount(params));
+        for (MockTssNode node : sessionFactory.nodes) {
+            assertEquals(0, node.openSessions.get());
+        }
+    }
+
+    @Test
+    public void replacedParametersLeaveNoWarmedSessionsBehind() throws Exception {
+        TssSessionPool pool = new TssSessionPool(2, 16, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory);
+        EthTssAccountParams params = sessionFactory.accountParams();
+        EthereumTssAccount warmed = new EthereumTssAccount(params, pool);
+        warmed.warmUpSessions(2);
+
+        warmed.ethAccountParams = new EthTssAccountParams(params.publicKey, params.factorKey, params.tssNonce,
+                params.tssShare, params.tssIndex, params.selectedTag, params.verifier, params.verifierID,
+                params.nodeIndexes, params.tssEndpoints, new String[]{"{\"sig\":1}"});
+        assertNotNull(warmed.signMessage("refreshed"));
+        assertEquals(0, pool.getIdleCount(params));
+    }
+
+    @Test
+    public void precomputeBufferFillsFromTheSessionPoolOfTheAccount() throws Exception {
+        EndpointSelector selector = new EndpointSelector();
+        EthereumTssAccount buffered = new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, selector, sessionFactory));
+        PrecomputeBuffer buffer = new PrecomputeBuffer(2, 1, PrecomputeBuffer.DEFAULT_MAX_AGE_MILLIS, Runnable::run);
+        buffered.setPrecomputeBuffer(buffer);
+        assertEquals(2, buffer.size());
+        assertEquals(0, buffer.getFailureCount());
+        assertTrue(selector.getLatencyMillis(sessionFactory.nodes.get(0).endpoint) > 0);
+
+        assertNotNull(buffered.signMessage("buffered"));
+        assertEquals(1, buffer.getHitCount());
+        buffer.shutdown();
+    }
+
+    @Test
+    public void defaultExecutorRunsOnDaemonThreads() throws Exception {
+        CompletableFuture<Boolean> daemon = new CompletableFuture<>();
+        account.executor.execute(() -> daemon.complete(Thread.currentThread().isDaemon()));
+        assertTrue(daemon.get(5, TimeUnit.SECONDS));
+    }
+
+    private static Map<SigningStage, AtomicInteger> countStages(EthereumTssAccount account) {
+        Map<SigningStage, AtomicInteger> stages = new ConcurrentHashMap<>();
+        for (SigningStage stage : SigningStage.values()) {
+            stages.put(stage, new AtomicInteger());
+        }
+        account.signingListener = (stage, address, endpoints, durationNanos, error) -> stages.get(stage).incrementAndGet();
+        return stages;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Executor delayed(long delayMillis) {
+        return runnable -> new Thread(() -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            runnable.run();
+        }).start();
+    }
+
+    private static void awaitRunning(SigningScheduler scheduler) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.getRunningCount() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+
+import java.math.BigInteger;
+
+public class FeeHistoryOracleTest {
+
+    private final MockEthereumRpc rpc = new MockEthereumRpc();
+    private final Web3j web3j = Web3j.build(rpc);
+    private FeeHistoryOracle oracle;
+
+    @After
+    public void tearDown() {
+        if (oracle != null) {
+            oracle.stop(web3j);
+        }
+        web3j.shutdown();
+    }
+
+    @Test
+    public void suggestsPendingBaseFeeAndMedianTip() {
+        oracle = new FeeHistoryOracle();
+        FeeSuggestion fees = oracle.suggest(web3j).join();
+        assertEquals(BigInteger.valueOf(1_750_000_000L), fees.baseFeePerGas);
+        assertEquals(BigInteger.valueOf(1_500_000_000L), fees.maxPriorityFeePerGas);
+        assertEquals(BigInteger.valueOf(3_500_000_001L), fees.maxFeePerGas(BigInteger.ONE));
+    }
+
+    @Test
+    public void servesCachedSuggestionWithoutRpc() {
+        oracle = new FeeHistoryOracle();
+        FeeSuggestion first = oracle.suggest(web3j).join();
+        for (int i = 0; i < 5; i++) {
+            assertSame(first, oracle.suggest(web3j).join());
+        }
+        assertEquals(1, rpc.requestCount.get());
+    }
+
+    @Test
+    public void refetchesStaleSuggestion() throws InterruptedException {
+        oracle = new FeeHistoryOracle(FeeHistoryOracle.DEFAULT_REFRESH_INTERVAL_MILLIS, 0);
+        oracle.suggest(web3j).join();
+        Thread.sleep(5);
+        rpc.results.put("eth_feeHistory", "{\"oldestBlock\":\"0x11\",\"baseFeePerGas\":[\"0x1\",\"0x2\"],\"gasUsedRatio\":[0.5],\"reward\":[[\"0x3\"]]}");
+        FeeSuggestion fees = oracle.suggest(web3j).join();
+        assertEquals(BigInteger.valueOf(2), fees.baseFeePerGas);
+        assertEquals(BigInteger.valueOf(3), fees.maxPriorityFeePerGas);
+        assertEquals(2, rpc.requestCount.get());
+    }
+
+    @Test
+    public void refreshesInBackground() throws InterruptedException {
+        oracle = new FeeHistoryOracle(10, FeeHistoryOracle.DEFAULT_MAX_AGE_MILLIS);
+        oracle.suggest(web3j).join();
+        rpc.results.put("eth_feeHistory", "{\"oldestBlock\":\"0x11\",\"baseFeePerGas\":[\"0x1\",\"0x5\"],\"gasUsedRatio\":[0.5],\"reward\":[[\"0x0\"]]}");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!BigInteger.valueOf(5).equals(oracle.suggest(web3j).join().baseFeePerGas)) {
+            assertTrue("fee history was not refreshed", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void fallsBackToGasPriceWithoutFeeHistory() {
+        rpc.results.remove("eth_feeHistory");
+        oracle = new FeeHistoryOracle();
+        FeeSuggestion fees = oracle.suggest(web3j).join();
+        assertEquals(BigInteger.valueOf(1_000_000_000L), fees.baseFeePerGas);
+        assertEquals(BigInteger.ZERO, fees.maxPriorityFeePerGas);
+    }
+}
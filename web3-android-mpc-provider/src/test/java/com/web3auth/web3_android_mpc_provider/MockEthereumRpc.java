@@ -0,0 +1,60 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.web3j.protocol.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process JSON-RPC endpoint answering the calls the provider makes while building transactions.
+ */
+final class MockEthereumRpc extends Service {
+    final Map<String, String> results = new ConcurrentHashMap<>();
+    final AtomicInteger requestCount = new AtomicInteger();
+    volatile long latencyMillis;
+
+    MockEthereumRpc() {
+        super(false);
+        results.put("eth_chainId", "\"0x5\"");
+        results.put("eth_getTransactionCount", "\"0x0\"");
+        results.put("eth_gasPrice", "\"0x3b9aca00\"");
+        results.put("eth_maxPriorityFeePerGas", "\"0x3b9aca00\"");
+        results.put("eth_feeHistory", "{\"oldestBlock\":\"0x10\",\"baseFeePerGas\":[\"0x77359400\",\"0x6fc23ac0\",\"0x684ee180\"],"
+                + "\"gasUsedRatio\":[0.4,0.35],\"reward\":[[\"0x3b9aca00\"],[\"0x59682f00\"]]}");
+    }
+
+    @Override
+    protected InputStream performIO(String payload) throws IOException {
+        requestCount.incrementAndGet();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+        JsonNode request = objectMapper.readTree(payload);
+        String method = request.get("method").asText();
+        String result = results.get(method);
+        String response;
+        if (result == null) {
+            response = "{\"jsonrpc\":\"2.0\",\"id\":" + request.get("id") +
+                    ",\"error\":{\"code\":-32601,\"message\":\"method " + method + " not found\"}}";
+        } else {
+            response = "{\"jsonrpc\":\"2.0\",\"id\":" + request.get("id") + ",\"result\":" + result + "}";
+        }
+        return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() {
+    }
+}
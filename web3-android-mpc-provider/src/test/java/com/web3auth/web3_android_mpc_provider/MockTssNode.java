@@ -0,0 +1,39 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for one TSS node with injectable latency and faults.
+ */
+final class MockTssNode {
+    final String endpoint;
+    volatile long latencyMillis;
+    volatile double failureRate;
+    volatile boolean down;
+    final AtomicInteger openSessions = new AtomicInteger();
+    final AtomicInteger peakSessions = new AtomicInteger();
+
+    MockTssNode(String endpoint, long latencyMillis) {
+        this.endpoint = endpoint;
+        this.latencyMillis = latencyMillis;
+    }
+
+    void open() {
+        int open = openSessions.incrementAndGet();
+        peakSessions.accumulateAndGet(open, Math::max);
+    }
+
+    void close() {
+        openSessions.decrementAndGet();
+    }
+
+    void roundTrip() {
+        if (down) {
+            throw new IllegalStateException("TSS node " + endpoint + " is unreachable");
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("TSS node " + endpoint + " dropped the session");
+        }
+    }
+}
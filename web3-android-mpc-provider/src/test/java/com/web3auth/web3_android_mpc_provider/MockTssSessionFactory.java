@@ -0,0 +1,134 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.web3auth.tss_client_android.client.util.Triple;
+
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Creates sessions that run the TSS rounds against {@link MockTssNode}s instead of the remote nodes.
+ * Each round waits for the slowest node, mirroring the client waiting on every party, and the
+ * signature is produced locally with the account key so that it verifies like a real one.
+ */
+final class MockTssSessionFactory implements TssSessionFactory {
+    static final String PRIVATE_KEY = "3b4af35bc4838471f94825f34c4f649904a258c0907d348bed653eb0c94ec6c0";
+
+    final ECKeyPair keyPair = ECKeyPair.create(Numeric.toBigInt(PRIVATE_KEY));
+    final List<MockTssNode> nodes;
+    int precomputeRounds = 3;
+
+    MockTssSessionFactory(MockTssNode... nodes) {
+        this.nodes = Arrays.asList(nodes);
+    }
+
+    static MockTssSessionFactory withLatency(long latencyMillis) {
+        return new MockTssSessionFactory(
+                new MockTssNode("http://127.0.0.1:7001/tss", latencyMillis),
+                new MockTssNode("http://127.0.0.1:7002/tss", latencyMillis),
+                new MockTssNode("http://127.0.0.1:7003/tss", latencyMillis));
+    }
+
+    EthTssAccountParams accountParams() {
+        String publicKey = "04" + Numeric.toHexStringNoPrefixZeroPadded(keyPair.getPublicKey(), 128);
+        String[] endpoints = new String[nodes.size()];
+        BigInteger[] nodeIndexes = new BigInteger[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            endpoints[i] = nodes.get(i).endpoint;
+            nodeIndexes[i] = BigInteger.valueOf(i + 1);
+        }
+        return new EthTssAccountParams(publicKey, PRIVATE_KEY, 0, PRIVATE_KEY, "2", "default",
+                "mock-verifier", "mock@example.com", nodeIndexes, endpoints, new String[]{"{}", "{}", "{}"});
+    }
+
+    @Override
+    public TssSession create(TssAccountContext context, TssAccountContext.NodeSet nodeSet) {
+        List<MockTssNode> parties = new ArrayList<>();
+        for (BigInteger node : nodeSet.nodeIndexes) {
+            parties.add(nodes.get(node.intValue() - 1));
+        }
+        return new MockTssSession(context, nodeSet, parties);
+    }
+
+    private static void round(List<MockTssNode> parties) {
+        long latency = 0;
+        for (MockTssNode node : parties) {
+            node.roundTrip();
+            latency = Math.max(latency, node.latencyMillis);
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private final class MockTssSession extends TssSession {
+        private final List<MockTssNode> parties;
+        private boolean closed;
+        private boolean consumed;
+
+        MockTssSession(TssAccountContext context, TssAccountContext.NodeSet nodeSet, List<MockTssNode> parties) {
+            super(context, nodeSet);
+            this.parties = parties;
+            for (MockTssNode node : parties) {
+                node.open();
+            }
+        }
+
+        @Override
+        boolean checkConnected() {
+            try {
+                round(parties);
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        }
+
+        @Override
+        void precompute() {
+            for (int i = 0; i < precomputeRounds; i++) {
+                round(parties);
+            }
+            precomputedAt = System.currentTimeMillis();
+        }
+
+        @Override
+        boolean isReady() {
+            return isPrecomputed() && !consumed && !closed;
+        }
+
+        @Override
+        Triple<BigInteger, BigInteger, Byte> sign(String hash) {
+            if (consumed) {
+                throw new IllegalStateException("This instance has already signed a message and cannot be reused");
+            }
+            round(parties);
+            consumed = true;
+            Sign.SignatureData signature = Sign.signMessage(Base64.getDecoder().decode(hash), keyPair, false);
+            // the DKLS client returns (s, r, recovery id)
+            return new Triple<>(new BigInteger(1, signature.getS()), new BigInteger(1, signature.getR()),
+                    (byte) (signature.getV()[0] - 27));
+        }
+
+        @Override
+        void close() {
+            if (!closed) {
+                closed = true;
+                for (MockTssNode node : parties) {
+                    node.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class NonceManagerTest {
+    private static final long CHAIN_ID = 5;
+
+    private final MockEthereumRpc rpc = new MockEthereumRpc();
+    private final Web3j web3j = Web3j.build(rpc);
+    // managers are shared per address, so every test numbers its own address
+    private final NonceManager nonceManager = NonceManager.forAddress("0x" + UUID.randomUUID().toString().replace("-", ""));
+
+    @Test
+    public void handsOutConsecutiveNoncesFromOneRead() throws Exception {
+        rpc.results.put("eth_getTransactionCount", "\"0x5\"");
+        assertEquals(5, acquire());
+        assertEquals(6, acquire());
+        assertEquals(7, acquire());
+        assertEquals(1, rpc.requestCount.get());
+    }
+
+    @Test
+    public void concurrentCallersShareOneRead() throws Exception {
+        rpc.latencyMillis = 50;
+        List<CompletableFuture<BigInteger>> nonces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nonces.add(nonceManager.acquire(web3j, CHAIN_ID));
+        }
+        TreeSet<BigInteger> distinct = new TreeSet<>();
+        for (CompletableFuture<BigInteger> nonce : nonces) {
+            distinct.add(nonce.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(10, distinct.size());
+        assertEquals(BigInteger.ZERO, distinct.first());
+        assertEquals(BigInteger.valueOf(9), distinct.last());
+        assertEquals(1, rpc.requestCount.get());
+    }
+
+    @Test
+    public void releasedNonceIsHandedOutAgainAfterReadingThePendingCount() throws Exception {
+        rpc.results.put("eth_getTransactionCount", "\"0x5\"");
+        assertEquals(5, acquire());
+        assertEquals(6, acquire());
+        // the first transaction was broadcast, the second one failed
+        rpc.results.put("eth_getTransactionCount", "\"0x6\"");
+        nonceManager.release(CHAIN_ID, BigInteger.valueOf(6));
+
+        assertEquals(6, acquire());
+        assertEquals(7, acquire());
+        assertEquals(2, rpc.requestCount.get());
+    }
+
+    @Test
+    public void releaseSkipsNoncesOfTransactionsStillBeingBroadcast() throws Exception {
+        rpc.results.put("eth_getTransactionCount", "\"0x5\"");
+        assertEquals(5, acquire());
+        assertEquals(6, acquire());
+        // the first transaction has not reached the node yet when the second one fails
+        nonceManager.release(CHAIN_ID, BigInteger.valueOf(6));
+
+        assertEquals(6, acquire());
+        assertEquals(7, acquire());
+    }
+
+    @Test
+    public void releaseClosesGapOfNonceSignedButNeverBroadcast() throws Exception {
+        nonceManager.broadcastWindowMillis = 20;
+        rpc.results.put("eth_getTransactionCount", "\"0x5\"");
+        // signed only, neither broadcast nor released
+        assertEquals(5, acquire());
+        assertEquals(6, acquire());
+        Thread.sleep(50);
+        nonceManager.release(CHAIN_ID, BigInteger.valueOf(6));
+
+        assertEquals(5, acquire());
+        assertEquals(6, acquire());
+    }
+
+    @Test
+    public void idleChainIsReadAgain() throws Exception {
+        nonceManager.idleTimeoutMillis = 20;
+        nonceManager.broadcastWindowMillis = 20;
+        rpc.results.put("eth_getTransactionCount", "\"0x5\"");
+        // signed only, neither broadcast nor released
+        assertEquals(5, acquire());
+        Thread.sleep(50);
+
+        assertEquals(5, acquire());
+        assertEquals(2, rpc.requestCount.get());
+    }
+
+    @Test
+    public void resyncRestartsFromThePendingCount() throws Exception {
+        assertEquals(0, acquire());
+        // transactions were sent from another wallet meanwhile
+        rpc.results.put("eth_getTransactionCount", "\"0x9\"");
+        assertEquals(BigInteger.valueOf(9), nonceManager.resync(web3j, CHAIN_ID).get(5, TimeUnit.SECONDS));
+        assertEquals(9, acquire());
+        assertEquals(10, acquire());
+    }
+
+    @Test
+    public void failedReadIsRetriedByTheNextCaller() throws Exception {
+        rpc.results.remove("eth_getTransactionCount");
+        try {
+            acquire();
+            fail("the pending count could not be read");
+        } catch (ExecutionException expected) {
+            // expected
+        }
+        rpc.results.put("eth_getTransactionCount", "\"0x3\"");
+        assertEquals(3, acquire());
+    }
+
+    @Test
+    public void chainsAreNumberedSeparately() throws Exception {
+        rpc.results.put("eth_getTransactionCount", "\"0x5\"");
+        assertEquals(5, acquire());
+        assertEquals(BigInteger.valueOf(5), nonceManager.acquire(web3j, CHAIN_ID + 1).get(5, TimeUnit.SECONDS));
+        assertEquals(6, acquire());
+    }
+
+    private long acquire() throws Exception {
+        return nonceManager.acquire(web3j, CHAIN_ID).get(5, TimeUnit.SECONDS).longValue();
+    }
+}
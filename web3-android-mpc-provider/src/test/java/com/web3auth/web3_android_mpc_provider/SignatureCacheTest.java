@@ -0,0 +1,97 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SignatureCacheTest {
+    private static final String ACCOUNT = "0x1111111111111111111111111111111111111111";
+    private static final String OTHER_ACCOUNT = "0x2222222222222222222222222222222222222222";
+
+    @Test
+    public void returnsCachedSignatureUntilItExpires() throws Exception {
+        SignatureCache cache = new SignatureCache(4, 50, SignatureCache.PayloadType.MESSAGE);
+        cache.put(ACCOUNT, "hash", "signature");
+        assertEquals("signature", cache.get(ACCOUNT, "hash"));
+
+        Thread.sleep(100);
+        assertNull(cache.get(ACCOUNT, "hash"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedSignature() {
+        SignatureCache cache = new SignatureCache(2, SignatureCache.DEFAULT_TTL_MILLIS, SignatureCache.PayloadType.MESSAGE);
+        cache.put(ACCOUNT, "a", "signature a");
+        cache.put(ACCOUNT, "b", "signature b");
+        assertEquals("signature a", cache.get(ACCOUNT, "a"));
+        cache.put(ACCOUNT, "c", "signature c");
+
+        assertEquals(2, cache.size());
+        assertEquals("signature a", cache.get(ACCOUNT, "a"));
+        assertNull(cache.get(ACCOUNT, "b"));
+        assertEquals("signature c", cache.get(ACCOUNT, "c"));
+    }
+
+    @Test
+    public void signaturesAreKeptPerAccount() {
+        SignatureCache cache = new SignatureCache(SignatureCache.PayloadType.MESSAGE);
+        cache.put(ACCOUNT, "hash", "signature");
+        cache.put(OTHER_ACCOUNT, "other hash", "other signature");
+        assertNull(cache.get(OTHER_ACCOUNT, "hash"));
+
+        cache.invalidate(ACCOUNT);
+        assertNull(cache.get(ACCOUNT, "hash"));
+        assertEquals("other signature", cache.get(OTHER_ACCOUNT, "other hash"));
+    }
+
+    @Test
+    public void cachesOnlyTheConfiguredPayloadTypes() {
+        SignatureCache cache = new SignatureCache(SignatureCache.PayloadType.TYPED_DATA);
+        assertTrue(cache.isEnabled(SignatureCache.PayloadType.TYPED_DATA));
+        assertFalse(cache.isEnabled(SignatureCache.PayloadType.MESSAGE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsACacheWithoutPayloadTypes() {
+        new SignatureCache();
+    }
+
+    @Test
+    public void accountSignsACachedMessageOnce() throws Exception {
+        MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(0);
+        EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory));
+        SignatureCache cache = new SignatureCache(SignatureCache.PayloadType.MESSAGE);
+        account.signatureCache = cache;
+
+        String signature = account.signMessage("cached");
+        sessionFactory.nodes.get(0).down = true;
+        assertEquals(signature, account.signMessage("cached"));
+        assertEquals(signature, account.signMessageAsync("cached").get());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.size());
+
+        account.destroy();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void accountDoesNotCacheOtherPayloadTypes() throws Exception {
+        MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(0);
+        EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory));
+        SignatureCache cache = new SignatureCache(SignatureCache.PayloadType.TYPED_DATA);
+        account.signatureCache = cache;
+
+        account.signMessage("not cached");
+        account.signMessage("not cached");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -0,0 +1,423 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import org.web3j.protocol.Web3j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives {@link EthereumTssAccount} with many concurrent signers against {@link MockTssNode}s and a
+ * {@link MockEthereumRpc}, without any network, and reports throughput, latency, heap and node
+ * session counts per scenario. Run with {@code ./gradlew :web3-android-mpc-provider:loadTest}, e.g.
+ * {@code -PloadTestArgs="--signers 10,100 --faults none,node-down --seconds 5"}.
+ */
+public final class SigningLoadHarness {
+    static final int NODES = 5;
+    static final String TO_ADDRESS = "0xE09543f1974732F5D6ad442dDf176D9FA54a5Be0";
+
+    enum Fault {
+        NONE,
+        // one node answers ten times slower than the others
+        SLOW_NODE,
+        // one node drops a fifth of its rounds
+        FLAKY_NODE,
+        // one node cannot be reached
+        NODE_DOWN
+    }
+
+    static final class Scenario {
+        int signers = 10;
+        Fault fault = Fault.NONE;
+        long durationMillis = 10_000;
+        long nodeLatencyMillis = 20;
+        long rpcLatencyMillis = 5;
+        // every n-th signature is an EIP-1559 transaction, 0 signs messages only
+        int transactionEvery = 4;
+        // scheduler limit, 0 lets every signer run at once
+        int maxConcurrent;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d signers, fault %s, node latency %d ms, rpc latency %d ms, scheduler limit %s",
+                    signers, fault.name().toLowerCase(Locale.ROOT).replace('_', '-'), nodeLatencyMillis, rpcLatencyMillis,
+                    maxConcurrent > 0 ? String.valueOf(maxConcurrent) : "none");
+        }
+    }
+
+    static final class Report {
+        final Scenario scenario;
+        long elapsedNanos;
+        long succeeded;
+        final Map<String, Long> failures = new TreeMap<>();
+        final Map<SigningStage, Long> stageFailures = new TreeMap<>();
+        final LatencyHistogram latency = new LatencyHistogram();
+        long baselineHeapBytes;
+        long peakHeapBytes;
+        // the heap after a full collection halfway through the run, and the sessions in flight at that point
+        long liveHeapBytes;
+        int liveInFlightSessions;
+        long allocatedBytes;
+        int peakInFlightSessions;
+        final int[] peakNodeSessions = new int[NODES];
+        int leakedSessions;
+        int rpcRequests;
+
+        Report(Scenario scenario) {
+            this.scenario = scenario;
+        }
+
+        long failed() {
+            long failed = 0;
+            for (long count : failures.values()) {
+                failed += count;
+            }
+            return failed;
+        }
+
+        double throughput() {
+            return succeeded / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append("== ").append(scenario).append('\n');
+            report.append(String.format(Locale.ROOT, "throughput  %.1f signatures/s, %d succeeded, %d failed in %.1f s%n",
+                    throughput(), succeeded, failed(), elapsedNanos / 1e9));
+            report.append(String.format(Locale.ROOT, "latency     p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99), latency.maxMillis()));
+            latency.appendBuckets(report);
+            report.append(String.format(Locale.ROOT, "heap        %.1f MB baseline, %.1f MB peak, %.1f MB live with %d sessions in flight (~%.1f KB each)%n",
+                    baselineHeapBytes / 1e6, peakHeapBytes / 1e6, liveHeapBytes / 1e6, liveInFlightSessions,
+                    liveInFlightSessions > 0 ? Math.max(0, liveHeapBytes - baselineHeapBytes) / 1e3 / liveInFlightSessions : 0));
+            if (allocatedBytes > 0) {
+                report.append(String.format(Locale.ROOT, "allocation  %.1f KB per signature on the signer threads%n",
+                        succeeded > 0 ? allocatedBytes / 1e3 / succeeded : 0));
+            }
+            report.append(String.format(Locale.ROOT, "sessions    %d peak in flight, peak per node %s, %d left open%n",
+                    peakInFlightSessions, Arrays.toString(peakNodeSessions), leakedSessions));
+            report.append(String.format(Locale.ROOT, "rpc         %d requests%n", rpcRequests));
+            if (!failures.isEmpty()) {
+                report.append("failures    ").append(failures).append('\n');
+            }
+            if (!stageFailures.isEmpty()) {
+                report.append("stage fails ").append(stageFailures).append('\n');
+            }
+            return report.toString();
+        }
+    }
+
+    private SigningLoadHarness() {
+    }
+
+    static Report run(Scenario scenario) throws InterruptedException {
+        MockTssNode[] nodes = new MockTssNode[NODES];
+        for (int i = 0; i < NODES; i++) {
+            nodes[i] = new MockTssNode("http://127.0.0.1:" + (7001 + i) + "/tss", scenario.nodeLatencyMillis);
+        }
+        switch (scenario.fault) {
+            case SLOW_NODE:
+                nodes[0].latencyMillis = scenario.nodeLatencyMillis * 10;
+                break;
+            case FLAKY_NODE:
+                nodes[1].failureRate = 0.2;
+                break;
+            case NODE_DOWN:
+                nodes[2].down = true;
+                break;
+            default:
+                break;
+        }
+        MockTssSessionFactory sessionFactory = new MockTssSessionFactory(nodes);
+        MockEthereumRpc rpc = new MockEthereumRpc();
+        rpc.latencyMillis = scenario.rpcLatencyMillis;
+        Web3j web3j = Web3j.build(rpc);
+        FeeHistoryOracle feeOracle = new FeeHistoryOracle();
+
+        Report report = new Report(scenario);
+        EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(), new TssSessionPool(
+                TssSessionPool.DEFAULT_MAX_IDLE_PER_ACCOUNT, TssSessionPool.DEFAULT_MAX_TOTAL,
+                TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory));
+        int limit = scenario.maxConcurrent > 0 ? scenario.maxConcurrent : scenario.signers;
+        account.scheduler = new SigningScheduler(limit, limit, scenario.signers, 60_000);
+        account.feeEstimator = feeOracle;
+        Map<SigningStage, AtomicLong> stageFailures = new ConcurrentHashMap<>();
+        account.signingListener = (stage, address, endpoints, durationNanos, error) -> {
+            if (error != null) {
+                stageFailures.computeIfAbsent(stage, ignored -> new AtomicLong()).incrementAndGet();
+            }
+        };
+
+        report.baselineHeapBytes = usedHeap(true);
+        AtomicLong peakHeap = new AtomicLong(report.baselineHeapBytes);
+        AtomicLong peakInFlight = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakHeap.accumulateAndGet(usedHeap(false), Math::max);
+            peakInFlight.accumulateAndGet(openSessions(nodes), Math::max);
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        sampler.schedule(() -> {
+            report.liveInFlightSessions = openSessions(nodes);
+            report.liveHeapBytes = usedHeap(true);
+        }, scenario.durationMillis / 2, TimeUnit.MILLISECONDS);
+
+        List<Signer> signers = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < scenario.signers; i++) {
+            Signer signer = new Signer(i, account, web3j, scenario, start);
+            signers.add(signer);
+            signer.start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Signer signer : signers) {
+            signer.join();
+        }
+        report.elapsedNanos = System.nanoTime() - startNanos;
+        sampler.shutdownNow();
+        feeOracle.stop(web3j);
+        web3j.shutdown();
+
+        for (Signer signer : signers) {
+            report.succeeded += signer.succeeded;
+            report.allocatedBytes += signer.allocatedBytes;
+            report.latency.addAll(signer.latencies);
+            for (Map.Entry<String, Long> failure : signer.failures.entrySet()) {
+                report.failures.merge(failure.getKey(), failure.getValue(), Long::sum);
+            }
+        }
+        for (Map.Entry<SigningStage, AtomicLong> failure : stageFailures.entrySet()) {
+            report.stageFailures.put(failure.getKey(), failure.getValue().get());
+        }
+        report.peakHeapBytes = peakHeap.get();
+        report.peakInFlightSessions = (int) peakInFlight.get();
+        for (int i = 0; i < NODES; i++) {
+            report.peakNodeSessions[i] = nodes[i].peakSessions.get();
+        }
+        account.sessionPool.clear();
+        report.leakedSessions = openSessions(nodes);
+        report.rpcRequests = rpc.requestCount.get();
+        return report;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<Integer> signerCounts = Arrays.asList(10, 100, 1000);
+        List<Fault> faults = Arrays.asList(Fault.values());
+        Scenario template = new Scenario();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--signers":
+                    signerCounts = new ArrayList<>();
+                    for (String count : value.split(",")) {
+                        signerCounts.add(Integer.parseInt(count.trim()));
+                    }
+                    break;
+                case "--faults":
+                    faults = new ArrayList<>();
+                    for (String fault : value.split(",")) {
+                        faults.add(Fault.valueOf(fault.trim().toUpperCase(Locale.ROOT).replace('-', '_')));
+                    }
+                    break;
+                case "--seconds":
+                    template.durationMillis = (long) (Double.parseDouble(value) * 1000);
+                    break;
+                case "--node-latency":
+                    template.nodeLatencyMillis = Long.parseLong(value);
+                    break;
+                case "--rpc-latency":
+                    template.rpcLatencyMillis = Long.parseLong(value);
+                    break;
+                case "--transaction-every":
+                    template.transactionEvery = Integer.parseInt(value);
+                    break;
+                case "--max-concurrent":
+                    template.maxConcurrent = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        for (int signers : signerCounts) {
+            for (Fault fault : faults) {
+                Scenario scenario = new Scenario();
+                scenario.signers = signers;
+                scenario.fault = fault;
+                scenario.durationMillis = template.durationMillis;
+                scenario.nodeLatencyMillis = template.nodeLatencyMillis;
+                scenario.rpcLatencyMillis = template.rpcLatencyMillis;
+                scenario.transactionEvery = template.transactionEvery;
+                scenario.maxConcurrent = template.maxConcurrent;
+                System.out.println(run(scenario));
+            }
+        }
+        // the provider's shared executors keep non-daemon threads alive
+        System.exit(0);
+    }
+
+    private static int openSessions(MockTssNode[] nodes) {
+        // every session is open on each node of its subset
+        int open = 0;
+        for (MockTssNode node : nodes) {
+            open += node.openSessions.get();
+        }
+        return open / TssAccountContext.THRESHOLD;
+    }
+
+    private static long usedHeap(boolean collect) {
+        Runtime runtime = Runtime.getRuntime();
+        if (collect) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class Signer extends Thread {
+        private final int id;
+        private final EthereumTssAccount account;
+        private final Web3j web3j;
+        private final Scenario scenario;
+        private final CountDownLatch start;
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final Map<String, Long> failures = new TreeMap<>();
+        long succeeded;
+        long allocatedBytes;
+
+        Signer(int id, EthereumTssAccount account, Web3j web3j, Scenario scenario, CountDownLatch start) {
+            super("load-signer-" + id);
+            this.id = id;
+            this.account = account;
+            this.web3j = web3j;
+            this.scenario = scenario;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(scenario.durationMillis);
+            for (int i = 0; System.nanoTime() < deadline; i++) {
+                long begin = System.nanoTime();
+                try {
+                    if (scenario.transactionEvery > 0 && i % scenario.transactionEvery == scenario.transactionEvery - 1) {
+                        account.signTransaction(web3j, TO_ADDRESS, 0.001, 0.000000001, null, BigInteger.valueOf(21000));
+                    } else {
+                        // distinct messages, so that concurrent requests are not coalesced
+                        account.signMessage("load test " + id + " " + i);
+                    }
+                    latencies.add(System.nanoTime() - begin);
+                    succeeded++;
+                } catch (EthereumSignerError e) {
+                    failures.merge("EthereumSignerError." + e.getErrorType(), 1L, Long::sum);
+                } catch (Throwable e) {
+                    failures.merge(e.getClass().getSimpleName(), 1L, Long::sum);
+                }
+            }
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                allocatedBytes = ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(getId());
+            }
+        }
+    }
+
+    /**
+     * Latencies in exponential buckets from 1 ms, with the raw samples kept for exact percentiles.
+     */
+    static final class LatencyHistogram {
+        private static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000};
+
+        private long[] samples = new long[64];
+        private int count;
+        private boolean sorted;
+
+        void add(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            sorted = false;
+        }
+
+        void addAll(LatencyHistogram other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.samples[i]);
+            }
+        }
+
+        int count() {
+            return count;
+        }
+
+        double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            sort();
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return samples[Math.max(0, Math.min(count - 1, index))] / 1e6;
+        }
+
+        double maxMillis() {
+            return percentileMillis(100);
+        }
+
+        void appendBuckets(StringBuilder report) {
+            sort();
+            int index = 0;
+            long lower = 0;
+            for (int bucket = 0; bucket <= BOUNDS_MILLIS.length; bucket++) {
+                long upperNanos = bucket < BOUNDS_MILLIS.length ? TimeUnit.MILLISECONDS.toNanos(BOUNDS_MILLIS[bucket]) : Long.MAX_VALUE;
+                int inBucket = 0;
+                while (index < count && samples[index] < upperNanos) {
+                    index++;
+                    inBucket++;
+                }
+                if (inBucket > 0) {
+                    String range = bucket < BOUNDS_MILLIS.length ? lower + "-" + BOUNDS_MILLIS[bucket] + " ms" : ">= " + lower + " ms";
+                    report.append(String.format(Locale.ROOT, "  %-14s %7d %s%n", range, inBucket,
+                            bar(inBucket)));
+                }
+                if (bucket < BOUNDS_MILLIS.length) {
+                    lower = BOUNDS_MILLIS[bucket];
+                }
+            }
+        }
+
+        private String bar(int inBucket) {
+            int width = (int) Math.round(40.0 * inBucket / count);
+            StringBuilder bar = new StringBuilder();
+            for (int i = 0; i < width; i++) {
+                bar.append('#');
+            }
+            return bar.toString();
+        }
+
+        private void sort() {
+            if (!sorted) {
+                Arrays.sort(samples, 0, count);
+                sorted = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class SigningLoadHarnessTest {
+
+    @Test
+    public void signsConcurrentlyWithoutLeakingSessions() throws Exception {
+        SigningLoadHarness.Report report = SigningLoadHarness.run(scenario(SigningLoadHarness.Fault.NONE));
+        assertTrue(report.succeeded > 0);
+        assertEquals(report.failures.toString(), 0, report.failed());
+        assertEquals(report.succeeded, report.latency.count());
+        assertEquals(10, report.peakNodeSessions[0]);
+        assertEquals(0, report.leakedSessions);
+    }
+
+    @Test
+    public void routesAroundANodeThatIsDown() throws Exception {
+        SigningLoadHarness.Report report = SigningLoadHarness.run(scenario(SigningLoadHarness.Fault.NODE_DOWN));
+        assertEquals(report.failures.toString(), 0, report.failed());
+        // the down node is tried by the first signers, not again on every signature
+        long connectFailures = report.stageFailures.getOrDefault(SigningStage.CHECK_CONNECTED, 0L);
+        assertTrue(report.toString(), connectFailures <= 2 * report.scenario.signers);
+        assertEquals(0, report.leakedSessions);
+    }
+
+    @Test
+    public void latencyPercentiles() {
+        SigningLoadHarness.LatencyHistogram histogram = new SigningLoadHarness.LatencyHistogram();
+        for (int i = 100; i >= 1; i--) {
+            histogram.add(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(50, histogram.percentileMillis(50), 0);
+        assertEquals(99, histogram.percentileMillis(99), 0);
+        assertEquals(100, histogram.maxMillis(), 0);
+
+        StringBuilder buckets = new StringBuilder();
+        histogram.appendBuckets(buckets);
+        assertTrue(buckets.toString(), buckets.toString().contains("50-100 ms"));
+    }
+
+    private static SigningLoadHarness.Scenario scenario(SigningLoadHarness.Fault fault) {
+        SigningLoadHarness.Scenario scenario = new SigningLoadHarness.Scenario();
+        scenario.signers = 10;
+        scenario.fault = fault;
+        scenario.durationMillis = 1_000;
+        scenario.nodeLatencyMillis = 5;
+        scenario.rpcLatencyMillis = 1;
+        return scenario;
+    }
+}
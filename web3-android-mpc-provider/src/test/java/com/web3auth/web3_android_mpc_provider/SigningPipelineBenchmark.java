@@ -0,0 +1,175 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import com.web3auth.tss_client_android.client.TSSClientError;
+import com.web3auth.tss_client_android.client.TSSHelpers;
+import com.web3auth.tss_client_android.client.util.Triple;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthChainId;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each stage of {@link EthereumTssAccount}'s signing pipeline on the host JVM against
+ * {@link MockTssSessionFactory} and {@link MockEthereumRpc}. Run with {@code ./gradlew :web3-android-mpc-provider:benchmark};
+ * sample time mode reports the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningPipelineBenchmark {
+
+    @Param({"0", "5"})
+    public long nodeLatencyMillis;
+
+    private MockTssSessionFactory sessionFactory;
+    private EthTssAccountParams params;
+    private TssAccountContext context;
+    private TssAccountContext.NodeSet nodeSet;
+    private EthereumTssAccount account;
+    private Web3j web3j;
+    private BigInteger[] nodeIndexes;
+    private BigInteger userTssIndex;
+    private BigInteger share;
+    private String hash;
+    private Triple<BigInteger, BigInteger, Byte> signature;
+    private byte[] publicKey;
+    private RawTransaction rawTransaction;
+    private Sign.SignatureData signatureData;
+
+    @Setup
+    public void setUp() throws Exception {
+        sessionFactory = MockTssSessionFactory.withLatency(nodeLatencyMillis);
+        params = sessionFactory.accountParams();
+        context = new TssAccountContext(params);
+        nodeSet = context.nodeSet(context.candidateNodes);
+        account = new EthereumTssAccount(params, new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS,
+                new EndpointSelector(), sessionFactory));
+        web3j = Web3j.build(new MockEthereumRpc());
+
+        nodeIndexes = new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(2), BigInteger.valueOf(3)};
+        userTssIndex = new BigInteger(params.tssIndex, 16);
+        share = new BigInteger(params.tssShare, 16);
+
+        hash = Base64.getEncoder().encodeToString(Hash.sha3("benchmark".getBytes(StandardCharsets.UTF_8)));
+        TssSession session = sessionFactory.create(context, nodeSet);
+        session.precompute();
+        signature = session.sign(hash);
+        session.close();
+        publicKey = Utils.convertToBytes(params.publicKey);
+
+        rawTransaction = RawTransaction.createTransaction(5L, BigInteger.ZERO, BigInteger.valueOf(21000),
+                "0xE09543f1974732F5D6ad442dDf176D9FA54a5Be0", BigInteger.TEN.pow(15), "",
+                BigInteger.TEN.pow(9), BigInteger.TEN.pow(10));
+        signatureData = new Sign.SignatureData((byte) 37, signature.getSecond().toByteArray(), signature.getFirst().toByteArray());
+    }
+
+    @TearDown
+    public void tearDown() {
+        web3j.shutdown();
+    }
+
+    @Benchmark
+    public String sessionAssembly() throws TSSClientError {
+        return DklsTssSession.assembleSession(params);
+    }
+
+    @Benchmark
+    public TssAccountContext accountContext() throws TSSClientError, CustomSigningError {
+        return new TssAccountContext(params);
+    }
+
+    @Benchmark
+    public void coefficients(Blackhole blackhole) throws TSSClientError {
+        blackhole.consume(TSSHelpers.getServerCoefficients(nodeIndexes, userTssIndex));
+        blackhole.consume(TSSHelpers.denormalizeShare(nodeIndexes, userTssIndex, share));
+    }
+
+    @Benchmark
+    public boolean precompute() throws TSSClientError, CustomSigningError {
+        TssSession session = sessionFactory.create(context, nodeSet);
+        try {
+            session.checkConnected();
+            session.precompute();
+            return session.isReady();
+        } finally {
+            session.close();
+        }
+    }
+
+    @Benchmark
+    public Triple<BigInteger, BigInteger, Byte> onlineSign(PrecomputedSession precomputed) throws TSSClientError, CustomSigningError {
+        return precomputed.session.sign(hash);
+    }
+
+    @Benchmark
+    public boolean verifySignature() throws TSSClientError {
+        return TSSHelpers.verifySignature(hash, signature.getFirst(), signature.getSecond(), signature.getThird(), publicKey);
+    }
+
+    @Benchmark
+    public byte[] rlpEncoding() {
+        byte[] encodedTransaction = TransactionEncoder.encode(rawTransaction);
+        Hash.sha3(encodedTransaction);
+        return TransactionEncoder.encode(rawTransaction, signatureData);
+    }
+
+    @Benchmark
+    public void rpcPrefetch(Blackhole blackhole) {
+        CompletableFuture<EthChainId> chainId = web3j.ethChainId().sendAsync();
+        CompletableFuture<EthGetTransactionCount> nonce = web3j.ethGetTransactionCount(
+                account.evmAddress, DefaultBlockParameterName.PENDING).sendAsync();
+        CompletableFuture<FeeSuggestion> fees = account.feeEstimator.suggest(web3j);
+        blackhole.consume(chainId.join().getChainId());
+        blackhole.consume(nonce.join().getTransactionCount());
+        blackhole.consume(fees.join().maxFeePerGas());
+    }
+
+    @Benchmark
+    public String signMessage() throws TSSClientError, CustomSigningError {
+        return account.signMessage("benchmark");
+    }
+
+    @State(Scope.Thread)
+    public static class PrecomputedSession {
+        TssSession session;
+
+        @Setup(Level.Invocation)
+        public void setUp(SigningPipelineBenchmark benchmark) throws TSSClientError, CustomSigningError {
+            session = benchmark.sessionFactory.create(benchmark.context, benchmark.nodeSet);
+            session.precompute();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class SigningSchedulerTest {
+    private static final String ACCOUNT = "0x1111111111111111111111111111111111111111";
+    private static final String OTHER_ACCOUNT = "0x2222222222222222222222222222222222222222";
+
+    @Test
+    public void limitsSignaturesPerAccountAndInTotal() throws Exception {
+        SigningScheduler scheduler = new SigningScheduler(3, 2, 10, 30_000);
+        SigningScheduler.Permit first = scheduler.acquire(ACCOUNT);
+        scheduler.acquire(ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> third = scheduler.acquireAsync(ACCOUNT);
+        assertFalse("the account is at its limit", third.isDone());
+
+        scheduler.acquire(OTHER_ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> fourth = scheduler.acquireAsync(OTHER_ACCOUNT);
+        assertFalse("the scheduler is at its limit", fourth.isDone());
+        assertEquals(3, scheduler.getRunningCount());
+        assertEquals(2, scheduler.getQueuedCount());
+
+        first.close();
+        third.get(5, TimeUnit.SECONDS);
+        assertFalse(fourth.isDone());
+        assertEquals(3, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void accountAtItsLimitDoesNotHoldUpOtherAccounts() throws Exception {
+        SigningScheduler scheduler = new SigningScheduler(3, 1, 10, 30_000);
+        scheduler.acquire(ACCOUNT);
+        SigningScheduler.Permit blocking = scheduler.acquire(OTHER_ACCOUNT);
+        scheduler.acquire("0x3333333333333333333333333333333333333333");
+        CompletableFuture<SigningScheduler.Permit> sameAccount = scheduler.acquireAsync(ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> otherAccount = scheduler.acquireAsync(OTHER_ACCOUNT);
+
+        blocking.close();
+        otherAccount.get(5, TimeUnit.SECONDS);
+        assertFalse(sameAccount.isDone());
+    }
+
+    @Test
+    public void grantsWaitersInArrivalOrder() throws Exception {
+        SigningScheduler scheduler = new SigningScheduler(1, 1, 10, 30_000);
+        SigningScheduler.Permit running = scheduler.acquire(ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> first = scheduler.acquireAsync(ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> second = scheduler.acquireAsync(ACCOUNT);
+
+        running.close();
+        first.get(5, TimeUnit.SECONDS).close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void rejectsSignaturesWhenTheQueueIsFull() {
+        SigningScheduler scheduler = new SigningScheduler(1, 1, 1, 30_000);
+        scheduler.acquire(ACCOUNT);
+        scheduler.acquireAsync(ACCOUNT);
+
+        assertError(EthereumSignerError.ErrorType.SIGNING_QUEUE_FULL, () -> scheduler.acquire(ACCOUNT));
+        assertEquals(1, scheduler.getRejectedCount());
+        assertEquals(1, scheduler.getQueuedCount());
+    }
+
+    @Test
+    public void queuedSignatureTimesOut() {
+        SigningScheduler scheduler = new SigningScheduler(1, 1, 10, 50);
+        scheduler.acquire(ACCOUNT);
+
+        long start = System.nanoTime();
+        assertError(EthereumSignerError.ErrorType.SIGNING_TIMEOUT, () -> scheduler.acquire(ACCOUNT));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertEquals(1, scheduler.getTimedOutCount());
+        assertEquals(0, scheduler.getQueuedCount());
+        assertEquals(1, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void cancelledRequestLeavesTheQueueWithoutTakingASlot() throws Exception {
+        SigningScheduler scheduler = new SigningScheduler(1, 1, 10, 30_000);
+        SigningScheduler.Permit running = scheduler.acquire(ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> cancelled = scheduler.acquireAsync(ACCOUNT);
+        CompletableFuture<SigningScheduler.Permit> next = scheduler.acquireAsync(ACCOUNT);
+
+        assertTrue(cancelled.cancel(false));
+        assertEquals(1, scheduler.getQueuedCount());
+        running.close();
+        next.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, scheduler.getRunningCount());
+        assertEquals(0, scheduler.getQueuedCount());
+    }
+
+    @Test
+    public void interruptedWaiterFailsAsCancelledWithoutTakingASlot() throws Exception {
+        SigningScheduler scheduler = new SigningScheduler(1, 1, 10, 30_000);
+        SigningScheduler.Permit running = scheduler.acquire(ACCOUNT);
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                scheduler.acquire(ACCOUNT);
+                failure.complete(null);
+            } catch (Throwable e) {
+                failure.complete(e);
+            }
+        });
+        waiter.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.getQueuedCount() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+
+        waiter.interrupt();
+        Throwable error = failure.get(5, TimeUnit.SECONDS);
+        assertTrue(error instanceof EthereumSignerError);
+        assertEquals(EthereumSignerError.ErrorType.SIGNING_CANCELLED, ((EthereumSignerError) error).getErrorType());
+        assertEquals(0, scheduler.getQueuedCount());
+        running.close();
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void closingAPermitTwiceReleasesOneSlot() throws Exception {
+        SigningScheduler scheduler = new SigningScheduler(2, 2, 10, 30_000);
+        SigningScheduler.Permit permit = scheduler.acquire(ACCOUNT);
+        scheduler.acquire(ACCOUNT);
+        permit.close();
+        permit.close();
+        assertEquals(1, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void cancellingAQueuedSignatureOfAnAccountFreesItsPlace() throws Exception {
+        MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(50);
+        EthereumTssAccount account = new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, new EndpointSelector(), sessionFactory));
+        account.scheduler = new SigningScheduler(1, 1, 10, 30_000);
+        CompletableFuture<String> running = account.signMessageAsync("running");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (account.scheduler.getRunningCount() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        CompletableFuture<String> queued = account.signMessageAsync("queued");
+        while (account.scheduler.getQueuedCount() == 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+
+        queued.cancel(false);
+        // the cancellation may reach the scheduler on the thread that queued the signature
+        while (account.scheduler.getQueuedCount() != 0) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(0, account.scheduler.getRunningCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidLimits() {
+        new SigningScheduler(0, 1, 10, 30_000);
+    }
+
+    private static void assertError(EthereumSignerError.ErrorType type, Runnable call) {
+        try {
+            call.run();
+            fail("expected " + type);
+        } catch (EthereumSignerError e) {
+            assertEquals(type, e.getErrorType());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SigningServiceTest {
+
+    private final ExecutorService callbackThread = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "callback"));
+    private final SigningService service = new SigningService(2, callbackThread);
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        service.shutdown();
+        callbackThread.shutdownNow();
+    }
+
+    @Test
+    public void deliversResultsOnTheCallbackExecutor() throws Exception {
+        MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(0);
+        EthereumTssAccount account = newAccount(sessionFactory, new EndpointSelector());
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<String> signature = service.newScope().signMessage(account, "hello", new SigningService.Callback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                delivered.add(Thread.currentThread().getName());
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(account.signMessage("hello"), signature.get());
+        assertEquals(1, delivered.size());
+        assertEquals("callback", delivered.get(0));
+    }
+
+    @Test
+    public void deliversTheFailureItself() throws Exception {
+        CustomSigningError failure = new CustomSigningError("failed");
+        CountDownLatch done = new CountDownLatch(1);
+        List<Throwable> errors = new ArrayList<>();
+        service.newScope().submit(() -> {
+            throw failure;
+        }, new SigningService.Callback<Object>() {
+            @Override
+            public void onSuccess(Object result) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                errors.add(error);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(failure, errors.get(0));
+    }
+
+    @Test
+    public void cancellingTheScopeCleansUpInFlightSessions() throws Exception {
+        MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(100);
+        EndpointSelector selector = new EndpointSelector();
+        EthereumTssAccount account = newAccount(sessionFactory, selector);
+        SigningService.Scope scope = service.newScope();
+        List<CompletableFuture<String>> signatures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            signatures.add(scope.signMessage(account, "message " + i, recordingCallback()));
+        }
+        awaitOpenSessions(sessionFactory, 2);
+
+        scope.cancel();
+        awaitOpenSessions(sessionFactory, 0);
+        for (CompletableFuture<String> signature : signatures) {
+            assertTrue(signature.isCancelled());
+        }
+        assertEquals(0, scope.getPendingCount());
+
+        // nothing is delivered for the cancelled signatures, and the nodes are not blamed for them
+        Thread.sleep(300);
+        assertTrue(delivered.isEmpty());
+        assertEquals(0, service.getActiveCount());
+        for (MockTssNode node : sessionFactory.nodes) {
+            assertEquals(0, selector.getErrorRate(node.endpoint), 0);
+        }
+        assertTrue(scope.signMessage(account, "late", recordingCallback()).isCancelled());
+    }
+
+    @Test
+    public void boundScopeIsCancelledWhenTheHostIsDestroyed() throws Exception {
+        MockTssSessionFactory sessionFactory = MockTssSessionFactory.withLatency(100);
+        EthereumTssAccount account = newAccount(sessionFactory, new EndpointSelector());
+        TestLifecycle lifecycle = new TestLifecycle();
+        SigningService.Scope scope = service.bind(() -> lifecycle);
+        CompletableFuture<String> signature = scope.signMessage(account, "rotate", recordingCallback());
+        awaitOpenSessions(sessionFactory, 1);
+
+        lifecycle.destroy();
+        assertTrue(scope.isCancelled());
+        assertTrue(signature.isCancelled());
+        assertTrue(lifecycle.observers.isEmpty());
+        awaitOpenSessions(sessionFactory, 0);
+        assertTrue(service.bind(() -> lifecycle).isCancelled());
+    }
+
+    private EthereumTssAccount newAccount(MockTssSessionFactory sessionFactory, EndpointSelector selector) {
+        return new EthereumTssAccount(sessionFactory.accountParams(),
+                new TssSessionPool(0, 0, TssSessionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, selector, sessionFactory));
+    }
+
+    private SigningService.Callback<String> recordingCallback() {
+        return new SigningService.Callback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                delivered.add(result);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                delivered.add(error.toString());
+            }
+        };
+    }
+
+    private static void awaitOpenSessions(MockTssSessionFactory sessionFactory, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (openSessions(sessionFactory) != expected) {
+            assertTrue("expected " + expected + " open sessions, found " + openSessions(sessionFactory),
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static int openSessions(MockTssSessionFactory sessionFactory) {
+        // every session is open on each of its three nodes
+        int open = 0;
+        for (MockTssNode node : sessionFactory.nodes) {
+            open += node.openSessions.get();
+        }
+        return open / TssAccountContext.THRESHOLD;
+    }
+
+    private static final class TestLifecycle extends Lifecycle {
+        final List<LifecycleObserver> observers = new CopyOnWriteArrayList<>();
+        private State state = State.RESUMED;
+
+        @Override
+        public void addObserver(LifecycleObserver observer) {
+            observers.add(observer);
+        }
+
+        @Override
+        public void removeObserver(LifecycleObserver observer) {
+            observers.remove(observer);
+        }
+
+        @Override
+        public State getCurrentState() {
+            return state;
+        }
+
+        void destroy() {
+            state = State.DESTROYED;
+            for (LifecycleObserver observer : observers) {
+                ((LifecycleEventObserver) observer).onStateChanged(() -> this, Event.ON_DESTROY);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.web3j.crypto.StructuredDataEncoder;
+
+public class StreamingStructuredDataEncoderTest {
+
+    private static final String POINT_TYPES = "\"types\":{" + TypedDataFixtures.DOMAIN_TYPE
+            + ",\"Point\":[{\"name\":\"x\",\"type\":\"int8\"},{\"name\":\"y\",\"type\":\"uint256\"},{\"name\":\"label\",\"type\":\"string\"}]"
+            + ",\"Shape\":[{\"name\":\"points\",\"type\":\"Point[]\"},{\"name\":\"grid\",\"type\":\"uint16[2][]\"},{\"name\":\"tags\",\"type\":\"string[]\"},"
+            + "{\"name\":\"flags\",\"type\":\"bool[]\"},{\"name\":\"ids\",\"type\":\"bytes4[]\"},{\"name\":\"data\",\"type\":\"bytes\"},"
+            + "{\"name\":\"key\",\"type\":\"bytes32\"},{\"name\":\"owner\",\"type\":\"address\"},{\"name\":\"closed\",\"type\":\"bool\"}]}";
+
+    @Test
+    public void mailMatchesWeb3j() throws Exception {
+        assertSameHash(TypedDataFixtures.MAIL);
+    }
+
+    @Test
+    public void orderBatchMatchesWeb3j() throws Exception {
+        assertSameHash(TypedDataFixtures.orderBatch(1));
+        assertSameHash(TypedDataFixtures.orderBatch(25));
+    }
+
+    @Test
+    public void messageBeforeTypesMatchesWeb3j() throws Exception {
+        assertSameHash("{\"message\":{\"points\":[],\"closed\":true},\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + "," + POINT_TYPES + "}");
+    }
+
+    @Test
+    public void arraysAndNumbersMatchWeb3j() throws Exception {
+        assertSameHash("{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"message\":{"
+                + "\"points\":[{\"x\":-128,\"y\":\"0xff\",\"label\":\"h\u00e9llo\"},{\"label\":\"b\",\"y\":\"115792089237316195423570985008687907853269984665640564039457584007913129639935\",\"x\":\"-1\"}],"
+                + "\"grid\":[[1,2],[\"3\",\"0x4\"]],\"tags\":[\"hello\",\"\"],\"flags\":[true,false],\"ids\":[\"0x01020304\",\"0xdeadbeef\"],"
+                + "\"data\":\"0x0102\",\"key\":\"0x" + repeat("ab", 32) + "\",\"owner\":\"0xCcCCccccCCCCcCCCCCCcCcCccCcCCCcCcccccccC\",\"closed\":false}}");
+    }
+
+    @Test
+    public void missingNullAndUnknownFieldsMatchWeb3j() throws Exception {
+        assertSameHash("{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"message\":{"
+                + "\"points\":[{\"x\":1,\"label\":null,\"extra\":{\"nested\":[1,2]}}],\"owner\":null,\"unknown\":[1]}}");
+    }
+
+    @Test
+    public void repeatedFieldNamesMatchWeb3j() throws Exception {
+        assertSameHash("{\"types\":{" + TypedDataFixtures.DOMAIN_TYPE + ",\"Twice\":[{\"name\":\"a\",\"type\":\"uint8\"},{\"name\":\"a\",\"type\":\"string\"}]},"
+                + "\"primaryType\":\"Twice\"," + TypedDataFixtures.DOMAIN + ",\"message\":{\"a\":\"7\"}}");
+    }
+
+    @Test
+    public void invalidPayloadsFailLikeWeb3j() {
+        String[] payloads = {
+                "{\"types\":{" + TypedDataFixtures.DOMAIN_TYPE + ",\"Bad\":[{\"name\":\"1x\",\"type\":\"uint8\"}]},\"primaryType\":\"Bad\"," + TypedDataFixtures.DOMAIN + ",\"message\":{}}",
+                "{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"message\":{\"grid\":[[1,2,3]]}}",
+                "{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"message\":{\"key\":\"0x01\"}}",
+                "{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"message\":{\"points\":[{\"x\":1000}]}}",
+                "{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"message\":{\"closed\":\"true\"}}",
+                "{" + POINT_TYPES + ",\"primaryType\":\"Shape\"," + TypedDataFixtures.DOMAIN + ",\"extra\":1,\"message\":{}}",
+        };
+        for (String payload : payloads) {
+            assertFails(payload);
+        }
+    }
+
+    private static void assertSameHash(String json) throws Exception {
+        assertArrayEquals(json, new StructuredDataEncoder(json).hashStructuredData(),
+                StreamingStructuredDataEncoder.hashStructuredData(json));
+    }
+
+    private static void assertFails(String json) {
+        try {
+            new StructuredDataEncoder(json).hashStructuredData();
+            fail("web3j accepted " + json);
+        } catch (Exception expected) {
+            // both encoders must reject the payload
+        }
+        try {
+            StreamingStructuredDataEncoder.hashStructuredData(json);
+            fail("Accepted " + json);
+        } catch (Exception expected) {
+            // expected
+        }
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.crypto.StructuredDataEncoder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares web3j's {@link StructuredDataEncoder} with {@link StreamingStructuredDataEncoder} on
+ * {@link TypedDataFixtures#orderBatch(int)} payloads. Run with
+ * {@code ./gradlew :web3-android-mpc-provider:benchmark -PjmhArgs="TypedDataBenchmark -prof gc"} to
+ * include allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypedDataBenchmark {
+
+    @Param({"1", "100"})
+    public int orders;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = TypedDataFixtures.orderBatch(orders);
+    }
+
+    @Benchmark
+    public byte[] web3jEncoder() throws IOException {
+        return new StructuredDataEncoder(json).hashStructuredData();
+    }
+
+    @Benchmark
+    public byte[] streamingEncoder() throws IOException {
+        return StreamingStructuredDataEncoder.hashStructuredData(json);
+    }
+}
@@ -0,0 +1,68 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * EIP-712 payloads shared by the encoder tests and benchmarks.
+ */
+final class TypedDataFixtures {
+    static final String DOMAIN_TYPE = "\"EIP712Domain\":[{\"name\":\"name\",\"type\":\"string\"},{\"name\":\"version\",\"type\":\"string\"},"
+            + "{\"name\":\"chainId\",\"type\":\"uint256\"},{\"name\":\"verifyingContract\",\"type\":\"address\"}]";
+    static final String DOMAIN = "\"domain\":{\"name\":\"Ether Mail\",\"version\":\"1\",\"chainId\":1,"
+            + "\"verifyingContract\":\"0xCcCCccccCCCCcCCCCCCcCcCccCcCCCcCcccccccC\"}";
+
+    static final String MAIL = "{\"types\":{" + DOMAIN_TYPE + ",\"Person\":[{\"name\":\"name\",\"type\":\"string\"},{\"name\":\"wallet\",\"type\":\"address\"}],"
+            + "\"Mail\":[{\"name\":\"from\",\"type\":\"Person\"},{\"name\":\"to\",\"type\":\"Person\"},{\"name\":\"contents\",\"type\":\"string\"}]},"
+            + "\"primaryType\":\"Mail\"," + DOMAIN + ",\"message\":{\"from\":{\"name\":\"Account\",\"wallet\":\"0x048975d4997d7578a3419851639c10318db430b6\"},"
+            + "\"to\":{\"name\":\"Bob\",\"wallet\":\"0xbBbBBBBbbBBBbbbBbbBbbbbBBbBbbbbBbBbbBBbB\"},\"contents\":\"Hello,Bob!\"}}";
+
+    private TypedDataFixtures() {
+    }
+
+    /**
+     * A batch of {@code count} orders in the shape of a Permit2 style batch: nested structs, struct
+     * arrays and fixed size byte arrays.
+     */
+    static String orderBatch(int count) {
+        Random random = new Random(count);
+        StringBuilder json = new StringBuilder("{\"types\":{").append(DOMAIN_TYPE)
+                .append(",\"Asset\":[{\"name\":\"token\",\"type\":\"address\"},{\"name\":\"amount\",\"type\":\"uint256\"}]")
+                .append(",\"Order\":[{\"name\":\"maker\",\"type\":\"address\"},{\"name\":\"offer\",\"type\":\"Asset\"},")
+                .append("{\"name\":\"consideration\",\"type\":\"Asset[]\"},{\"name\":\"salt\",\"type\":\"bytes32\"},")
+                .append("{\"name\":\"deadline\",\"type\":\"uint64\"},{\"name\":\"partial\",\"type\":\"bool\"},{\"name\":\"note\",\"type\":\"string\"}]")
+                .append(",\"Batch\":[{\"name\":\"orders\",\"type\":\"Order[]\"},{\"name\":\"nonces\",\"type\":\"uint256[]\"}]},")
+                .append("\"primaryType\":\"Batch\",").append(DOMAIN).append(",\"message\":{\"orders\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"maker\":\"").append(address(random)).append("\",\"offer\":").append(asset(random))
+                    .append(",\"consideration\":[").append(asset(random)).append(',').append(asset(random))
+                    .append("],\"salt\":\"0x").append(hex(random, 32)).append("\",\"deadline\":").append(1700000000 + i)
+                    .append(",\"partial\":").append(i % 2 == 0).append(",\"note\":\"order ").append(i).append("\"}");
+        }
+        json.append("],\"nonces\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(new BigInteger(256, random)).append('"');
+        }
+        return json.append("]}}").toString();
+    }
+
+    private static String asset(Random random) {
+        return "{\"token\":\"" + address(random) + "\",\"amount\":\"" + new BigInteger(128, random) + "\"}";
+    }
+
+    private static String address(Random random) {
+        return "0x" + hex(random, 20);
+    }
+
+    private static String hex(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return Codec.encodeHex(bytes);
+    }
+}
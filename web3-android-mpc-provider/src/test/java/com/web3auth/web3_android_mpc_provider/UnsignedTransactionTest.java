@@ -0,0 +1,123 @@
+package com.web3auth.web3_android_mpc_provider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.SignedRawTransaction;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UnsignedTransactionTest {
+
+    private static final Credentials CREDENTIALS = Credentials.create(
+            ECKeyPair.create(new BigInteger("4f3edf983ac636a65a842ce7c78d9aa706d3b113bce9c46f30d7d21715b23b1d", 16)));
+    private static final String TO = "0xE09543f1974732F5D6ad442dDf176D9FA54a5Be0";
+    private static final long[] CHAIN_IDS = {1, 5, 137, 11155111, 0x7fffffffL * 3};
+
+    @Test
+    public void legacyTransactionMatchesWeb3jEip155Signing() throws Exception {
+        RawTransaction rawTransaction = RawTransaction.createTransaction(BigInteger.valueOf(9), BigInteger.TEN.pow(10),
+                BigInteger.valueOf(21000), TO, BigInteger.TEN.pow(15), "0xabcdef");
+        for (long chainId : CHAIN_IDS) {
+            byte[] signed = sign(UnsignedTransaction.decode(TransactionEncoder.encode(rawTransaction), chainId));
+            assertArrayEquals(TransactionEncoder.signMessage(rawTransaction, chainId, CREDENTIALS), signed);
+            SignedRawTransaction decoded = (SignedRawTransaction) TransactionDecoder.decode(Numeric.toHexString(signed));
+            assertEquals(CREDENTIALS.getAddress(), decoded.getFrom());
+            assertEquals(Long.valueOf(chainId), decoded.getChainId());
+        }
+    }
+
+    @Test
+    public void legacyTransactionInEip155SigningForm() throws Exception {
+        RawTransaction rawTransaction = RawTransaction.createEtherTransaction(BigInteger.ONE, BigInteger.TEN.pow(10),
+                BigInteger.valueOf(21000), TO, BigInteger.TEN);
+        byte[] signingForm = TransactionEncoder.encode(rawTransaction, 137L);
+        assertArrayEquals(TransactionEncoder.signMessage(rawTransaction, 137L, CREDENTIALS),
+                sign(UnsignedTransaction.decode(signingForm, 137L)));
+        assertRejected(signingForm, 1L);
+    }
+
+    @Test
+    public void dynamicFeeTransactionMatchesWeb3j() throws Exception {
+        for (long chainId : CHAIN_IDS) {
+            RawTransaction rawTransaction = RawTransaction.createTransaction(chainId, BigInteger.valueOf(3),
+                    BigInteger.valueOf(21000), TO, BigInteger.TEN.pow(15), "", BigInteger.TEN.pow(9), BigInteger.TEN.pow(10));
+            byte[] signed = sign(UnsignedTransaction.decode(TransactionEncoder.encode(rawTransaction), chainId));
+            assertArrayEquals(TransactionEncoder.signMessage(rawTransaction, CREDENTIALS), signed);
+            assertEquals(CREDENTIALS.getAddress(), ((SignedRawTransaction) TransactionDecoder.decode(Numeric.toHexString(signed))).getFrom());
+            assertRejected(TransactionEncoder.encode(rawTransaction), chainId + 1);
+        }
+    }
+
+    @Test
+    public void accessListTransactionKeepsAccessList() throws Exception {
+        RlpList accessList = new RlpList(new RlpList(RlpString.create(Numeric.hexStringToByteArray(TO)),
+                new RlpList(RlpString.create(new byte[32]))));
+        List<RlpType> fields = new ArrayList<>(Arrays.asList(RlpString.create(137), RlpString.create(7),
+                RlpString.create(BigInteger.TEN.pow(10)), RlpString.create(21000), RlpString.create(Numeric.hexStringToByteArray(TO)),
+                RlpString.create(BigInteger.ONE), RlpString.create(new byte[0]), accessList));
+        byte[] unsigned = envelope(UnsignedTransaction.TYPE_ACCESS_LIST, fields);
+
+        UnsignedTransaction transaction = UnsignedTransaction.decode(unsigned, 137L);
+        assertArrayEquals(Hash.sha3(unsigned), transaction.signingHash());
+
+        Sign.SignatureData signature = Sign.signMessage(transaction.signingHash(), CREDENTIALS.getEcKeyPair(), false);
+        int recoveryId = signature.getV()[0] - 27;
+        fields.add(RlpString.create(recoveryId));
+        fields.add(RlpString.create(Numeric.toBigInt(signature.getR())));
+        fields.add(RlpString.create(Numeric.toBigInt(signature.getS())));
+        byte[] signed = transaction.encodeSigned(recoveryId, Numeric.toBigInt(signature.getR()), Numeric.toBigInt(signature.getS()));
+        assertArrayEquals(envelope(UnsignedTransaction.TYPE_ACCESS_LIST, fields), signed);
+        assertRejected(signed, 137L);
+    }
+
+    @Test
+    public void rejectsMalformedTransactions() throws Exception {
+        RawTransaction rawTransaction = RawTransaction.createEtherTransaction(BigInteger.ONE, BigInteger.TEN.pow(10),
+                BigInteger.valueOf(21000), TO, BigInteger.TEN);
+        assertRejected(TransactionEncoder.signMessage(rawTransaction, 5L, CREDENTIALS), 5L);
+        assertRejected(new byte[0], 1L);
+        assertRejected(new byte[]{0x03, (byte) 0xc0}, 1L);
+        assertRejected(new byte[]{(byte) 0xc1, 0x01}, 1L);
+        assertRejected(new byte[]{(byte) 0xc5, 0x01}, 1L);
+    }
+
+    private static byte[] sign(UnsignedTransaction transaction) {
+        Sign.SignatureData signature = Sign.signMessage(transaction.signingHash(), CREDENTIALS.getEcKeyPair(), false);
+        return transaction.encodeSigned(signature.getV()[0] - 27, Numeric.toBigInt(signature.getR()), Numeric.toBigInt(signature.getS()));
+    }
+
+    private static byte[] envelope(byte type, List<RlpType> fields) {
+        byte[] payload = RlpEncoder.encode(new RlpList(fields));
+        byte[] encoded = new byte[payload.length + 1];
+        encoded[0] = type;
+        System.arraycopy(payload, 0, encoded, 1, payload.length);
+        return encoded;
+    }
+
+    private static void assertRejected(byte[] encoded, long chainId) {
+        try {
+            UnsignedTransaction.decode(encoded, chainId);
+            fail("Accepted " + Numeric.toHexString(encoded));
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}